@@ -13,7 +13,11 @@ import java.util.stream.Collectors;
 
 public class AnimationSet implements Comparable<AnimationSet> {
 	public static final List<AnimationSet> animationSets = new ArrayList<>();
+	/** animationSets as an array for the side panel's combo boxes, which all share it. Replaced, never modified. */
+	static AnimationSet[] comboBoxItems = new AnimationSet[0];
 	public static final List<Integer> doNotReplaceIdles = new ArrayList<>();
+	/** The type of every animation in animationSets, from the first set that has it. Replaced, never modified. */
+	private static Map<Integer, AnimationType> animationTypes = Collections.emptyMap();
 	private static final Map<Integer, String> descriptions = new HashMap<>();
 
 	public static String getDescription(AnimationSet animationSet, AnimationType animation)
@@ -26,6 +30,13 @@ public class AnimationSet implements Comparable<AnimationSet> {
 		return animation.getComboBoxName();
 	}
 
+	/**
+	 * @return the type the animation has in the animation sets, or null if it isn't in any.
+	 */
+	public static AnimationType getAnimationType(int animationId) {
+		return animationTypes.get(animationId);
+	}
+
 	public static AnimationSet getAnimationSet(String name) {
 		return animationSets.stream().filter(a -> name.equals(a.name)).findAny().orElse(null);
 	}
@@ -697,6 +708,18 @@ public class AnimationSet implements Comparable<AnimationSet> {
 			.build();
 
 		Collections.sort(animationSets);
+		comboBoxItems = animationSets.toArray(new AnimationSet[0]);
+
+		Map<Integer, AnimationType> types = new HashMap<>();
+		for (AnimationSet animationSet : animationSets)
+		{
+			for (int i = 0; i < animationSet.animations.length; i++)
+			{
+				int animation = animationSet.animations[i];
+				if (animation > 0) types.putIfAbsent(animation, AnimationType.values()[i]);
+			}
+		}
+		animationTypes = types;
 	}
 
 	private static class AnimationSetBuilder {
@@ -196,7 +196,7 @@ public class ChatBoxFilterableSearch extends ChatboxTextInput
 						addItemWidgetItem(
 							itemId,
 							Constants.getIconId(itemId),
-							Constants.getName(itemId, itemComposition.getName()),
+							plugin.itemNameCache.getDisplayName(itemId),
 							container,
 							x,
 							y,
@@ -747,7 +747,7 @@ public class ChatBoxFilterableSearch extends ChatboxTextInput
 
 				if (!matchesSlotFilter(itemId)) continue;
 
-				String name = Constants.getName(itemId, itemComposition.getName()).toLowerCase();
+				String name = plugin.itemNameCache.getLowerCaseDisplayName(itemId);
 				if (itemId == integer || name.contains(search))
 				{
 					if (results.size() == RESULTS_PER_PAGE)
@@ -11,10 +11,12 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
@@ -45,6 +47,10 @@ public class Constants
 	public static Map<String, int[]> poseanims;
 	public static List<ProjectileCast> projectiles = new ArrayList<>();
 	public static ProjectileCast[] projectilesById = new ProjectileCast[0];
+	/** Cast animations of the spells in projectiles, i.e. the ones with a spell icon. */
+	public static Set<Integer> spellCastAnimations = new HashSet<>();
+	/** Indexed by spell id, null for spells that have a projectile to take the timing from. */
+	public static SpellTiming[] spellTimingsById = new SpellTiming[0];
 
 	// key is item id, value is the slot id it should go in. A slot id of -1 means the item should be considered unequippable.
 	public static Map<Integer, Integer> SLOT_OVERRIDES = new HashMap<>();
@@ -99,6 +105,20 @@ public class Constants
 		NAME_ICON_OVERRIDES = data.nameIconOverrides;
 		projectiles = data.projectiles;
 		projectilesById = createProjectilesById(projectiles);
+		spellCastAnimations = projectiles.stream().filter(p -> p.spriteIdIcon != -1).map(p -> p.castAnimation).collect(Collectors.toSet());
+		spellTimingsById = new SpellTiming[projectilesById.length];
+		if (data.spellTimings != null)
+		{
+			for (Map.Entry<Integer, SpellTiming> entry : data.spellTimings.entrySet())
+			{
+				spellTimingsById[entry.getKey()] = entry.getValue();
+			}
+		}
+	}
+
+	public static SpellTiming getSpellTiming(ProjectileCast spell)
+	{
+		return spell.id >= 0 && spell.id < spellTimingsById.length ? spellTimingsById[spell.id] : null;
 	}
 
 	private static ProjectileCast[] createProjectilesById(List<ProjectileCast> projectiles)
@@ -125,6 +145,7 @@ public class Constants
 		Map<Integer, NameAndIconId> nameIconOverrides;
 		Map<String, int[]> poseanims;
 		List<ProjectileCast> projectiles;
+		Map<Integer, SpellTiming> spellTimings;
 	}
 
 	private static void addUnequippable(int itemId, KitType kitType) {
@@ -0,0 +1,57 @@
+package com.weaponanimationreplacer;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import lombok.RequiredArgsConstructor;
+import net.runelite.api.Actor;
+
+/**
+ * Hit graphics that should be put on an actor at a later game cycle, e.g. when a replaced spell's projectile lands.
+ * Any number can be pending at once, so a second cast doesn't overwrite the first one's graphic.
+ *
+ * Client thread only.
+ */
+class DelayedGraphicScheduler
+{
+	@RequiredArgsConstructor
+	private static class PendingGraphic
+	{
+		final int cycle;
+		final Actor actor;
+		final int graphic;
+		final int height;
+	}
+
+	private final PriorityQueue<PendingGraphic> pending = new PriorityQueue<>(Comparator.comparingInt(p -> p.cycle));
+
+	void schedule(Actor actor, int graphic, int height, int cycle)
+	{
+		pending.add(new PendingGraphic(cycle, actor, graphic, height));
+	}
+
+	/**
+	 * Applies every graphic that is due. Uses <= so that a skipped cycle doesn't lose a graphic.
+	 */
+	void applyDue(int gameCycle)
+	{
+		PendingGraphic next;
+		while ((next = pending.peek()) != null && next.cycle <= gameCycle)
+		{
+			pending.poll();
+			next.actor.setGraphic(next.graphic);
+			next.actor.setSpotAnimFrame(0);
+			next.actor.setGraphicHeight(next.height);
+		}
+	}
+
+	void remove(Actor actor)
+	{
+		if (pending.isEmpty()) return;
+		pending.removeIf(p -> p.actor == actor);
+	}
+
+	void clear()
+	{
+		pending.clear();
+	}
+}
@@ -0,0 +1,92 @@
+package com.weaponanimationreplacer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Undo/redo for the transmog sets.
+ *
+ * Each state is the list of frozen set copies from a {@link TransmogConfigSnapshot}. Sets that didn't change between two
+ * states are the same object in both, so a state only costs a list plus copies of the sets that were edited, and
+ * nothing has to be copied or serialized again to record it.
+ */
+class EditHistory
+{
+	private static final int MAX_UNDO = 100;
+
+	private final Deque<List<TransmogSet>> undo = new ArrayDeque<>();
+	private final Deque<List<TransmogSet>> redo = new ArrayDeque<>();
+	private List<TransmogSet> current = null;
+
+	/**
+	 * Forgets all history, e.g. when the sets are loaded from a different profile.
+	 */
+	synchronized void reset(List<TransmogSet> state)
+	{
+		undo.clear();
+		redo.clear();
+		current = state;
+	}
+
+	/**
+	 * Records an edit.
+	 * @return false if state is the same as the current state, so nothing was recorded.
+	 */
+	synchronized boolean record(List<TransmogSet> state)
+	{
+		if (current == null || sameSets(current, state))
+		{
+			current = state;
+			return false;
+		}
+
+		undo.push(current);
+		if (undo.size() > MAX_UNDO) undo.removeLast();
+		redo.clear();
+		current = state;
+		return true;
+	}
+
+	/**
+	 * @return the state to go back to, or null if there is nothing to undo.
+	 */
+	synchronized List<TransmogSet> undo()
+	{
+		if (undo.isEmpty()) return null;
+		redo.push(current);
+		current = undo.pop();
+		return current;
+	}
+
+	/**
+	 * @return the state to go forward to, or null if there is nothing to redo.
+	 */
+	synchronized List<TransmogSet> redo()
+	{
+		if (redo.isEmpty()) return null;
+		undo.push(current);
+		current = redo.pop();
+		return current;
+	}
+
+	synchronized boolean canUndo()
+	{
+		return !undo.isEmpty();
+	}
+
+	synchronized boolean canRedo()
+	{
+		return !redo.isEmpty();
+	}
+
+	private static boolean sameSets(List<TransmogSet> a, List<TransmogSet> b)
+	{
+		if (a.size() != b.size()) return false;
+		for (int i = 0; i < a.size(); i++)
+		{
+			if (a.get(i) != b.get(i)) return false;
+		}
+		return true;
+	}
+}
@@ -1,11 +1,50 @@
 package com.weaponanimationreplacer;
 
 import java.awt.Color;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
 
 public class GraphicEffect
 {
+	@RequiredArgsConstructor
 	enum Type {
-		SCYTHE_SWING
+		SCYTHE_SWING(Trigger.ATTACK_ANIMATION, 20, 100, 1204, (short) 960, -85, GraphicEffectEngine::placeScytheSwing),
+		;
+
+		/** What starts the effect. */
+		final Trigger trigger;
+		/** Game cycles between the trigger and the effect appearing. */
+		final int delayCycles;
+		/** Game cycles the effect stays in the scene. Should be longer than the animation. */
+		final int lifetimeCycles;
+		final int animationId;
+		/** The model color that the effect's color replaces. */
+		final short recolorFrom;
+		/** Applied to recolored models only. */
+		final int modelYOffset;
+		final Placement placement;
+	}
+
+	enum Trigger {
+		ATTACK_ANIMATION,
+		SPELL_CAST,
+		GEAR_CHANGE,
+	}
+
+	interface Placement {
+		/**
+		 * @return where the effect goes and which model to use, or null to skip it.
+		 */
+		Spawn place(Client client, Player player);
+	}
+
+	@Value
+	static class Spawn {
+		WorldPoint point;
+		int modelId;
 	}
 
 	public Type type;
@@ -19,4 +58,8 @@ public class GraphicEffect
 	public static GraphicEffect createTemplate() {
 		return new GraphicEffect(null, Color.CYAN);
 	}
+
+	public GraphicEffect copy() {
+		return new GraphicEffect(type, color);
+	}
 }
@@ -0,0 +1,288 @@
+package com.weaponanimationreplacer;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Actor;
+import net.runelite.api.Animation;
+import net.runelite.api.Client;
+import net.runelite.api.JagexColor;
+import net.runelite.api.Model;
+import net.runelite.api.ModelData;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.RuneLiteObject;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Spawns the {@link GraphicEffect}s of the current gear. Each effect type says what triggers it, how long after the
+ * trigger it appears and how long it stays; this class only schedules them and puts them in the scene using a small
+ * pool of RuneLiteObjects.
+ *
+ * The effects are sorted by trigger whenever the gear changes, so a trigger with no effects costs an array length
+ * check, and nothing runs per tick unless an effect has been used.
+ *
+ * Client thread only.
+ */
+@Singleton
+public class GraphicEffectEngine
+{
+	/** Effects only overlap with the next one at very fast attack speeds, so this doesn't need to be big. */
+	private static final int POOL_SIZE = 4;
+	private static final int MAX_PENDING = 8;
+	private static final int MODEL_CACHE_SIZE = 16;
+	private static final GraphicEffect[] NONE = new GraphicEffect[0];
+
+	@Inject
+	private Client client;
+
+	/** The current gear's effects, indexed by trigger ordinal. */
+	private GraphicEffect[][] effectsByTrigger = emptyEffectsByTrigger();
+
+	private final GraphicEffect[] pendingEffects = new GraphicEffect[MAX_PENDING];
+	private final int[] pendingCycles = new int[MAX_PENDING];
+	private int pendingCount = 0;
+
+	/** Created on first use. */
+	private RuneLiteObjectPool pool = null;
+	/** Lit models by model id and color, since recoloring and lighting them on every effect is expensive. */
+	private final Map<Long, Model> models = new LinkedHashMap<Long, Model>(MODEL_CACHE_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Model> eldest)
+		{
+			return size() > MODEL_CACHE_SIZE;
+		}
+	};
+	private final Animation[] animations = new Animation[GraphicEffect.Type.values().length];
+
+	/**
+	 * Uses the first effect of each type from the swaps, in priority order.
+	 */
+	void setEffects(List<Swap> swaps)
+	{
+		GraphicEffect[] byType = new GraphicEffect[GraphicEffect.Type.values().length];
+		for (Swap swap : swaps)
+		{
+			for (GraphicEffect graphicEffect : swap.getGraphicEffects())
+			{
+				if (graphicEffect.type != null && byType[graphicEffect.type.ordinal()] == null)
+				{
+					byType[graphicEffect.type.ordinal()] = graphicEffect;
+				}
+			}
+		}
+
+		GraphicEffect[][] effectsByTrigger = emptyEffectsByTrigger();
+		for (GraphicEffect.Trigger trigger : GraphicEffect.Trigger.values())
+		{
+			List<GraphicEffect> effects = new ArrayList<>();
+			for (GraphicEffect graphicEffect : byType)
+			{
+				if (graphicEffect != null && graphicEffect.type.trigger == trigger) effects.add(graphicEffect);
+			}
+			if (!effects.isEmpty()) effectsByTrigger[trigger.ordinal()] = effects.toArray(NONE);
+		}
+		this.effectsByTrigger = effectsByTrigger;
+	}
+
+	/**
+	 * Schedules the effects with this trigger. An effect that is already waiting to appear is pushed back instead of
+	 * scheduled twice, since e.g. a replaced animation sets off the trigger again.
+	 */
+	void trigger(GraphicEffect.Trigger trigger)
+	{
+		GraphicEffect[] effects = effectsByTrigger[trigger.ordinal()];
+		if (effects.length == 0) return;
+
+		int gameCycle = client.getGameCycle();
+		outer:
+		for (GraphicEffect graphicEffect : effects)
+		{
+			int cycle = gameCycle + graphicEffect.type.delayCycles;
+			for (int i = 0; i < pendingCount; i++)
+			{
+				if (pendingEffects[i] == graphicEffect)
+				{
+					pendingCycles[i] = cycle;
+					continue outer;
+				}
+			}
+			if (pendingCount == MAX_PENDING) return;
+			pendingEffects[pendingCount] = graphicEffect;
+			pendingCycles[pendingCount] = cycle;
+			pendingCount++;
+		}
+	}
+
+	/**
+	 * Spawns effects that are due and removes finished ones. Call every client tick.
+	 */
+	void tick()
+	{
+		if (pendingCount > 0)
+		{
+			int gameCycle = client.getGameCycle();
+			for (int i = 0; i < pendingCount; )
+			{
+				if (pendingCycles[i] > gameCycle)
+				{
+					i++;
+					continue;
+				}
+				GraphicEffect graphicEffect = pendingEffects[i];
+				pendingCount--;
+				pendingEffects[i] = pendingEffects[pendingCount];
+				pendingCycles[i] = pendingCycles[pendingCount];
+				pendingEffects[pendingCount] = null;
+				spawn(graphicEffect);
+			}
+		}
+		if (pool != null) pool.tick();
+	}
+
+	/**
+	 * Removes all effects from the scene, e.g. when it is reloaded.
+	 */
+	void clear()
+	{
+		for (int i = 0; i < pendingCount; i++) pendingEffects[i] = null;
+		pendingCount = 0;
+		if (pool != null) pool.clear();
+	}
+
+	/**
+	 * Like {@link #clear()}, but also forgets the current gear's effects and cached models, for when the plugin stops.
+	 */
+	void reset()
+	{
+		clear();
+		effectsByTrigger = emptyEffectsByTrigger();
+		models.clear();
+		for (int i = 0; i < animations.length; i++) animations[i] = null;
+	}
+
+	private void spawn(GraphicEffect graphicEffect)
+	{
+		Player player = client.getLocalPlayer();
+		if (player == null) return;
+		GraphicEffect.Type type = graphicEffect.type;
+		GraphicEffect.Spawn spawn = type.placement.place(client, player);
+		if (spawn == null) return;
+		LocalPoint localPoint = LocalPoint.fromWorld(client, spawn.getPoint());
+		if (localPoint == null) return;
+		Model model = getModel(type, spawn.getModelId(), graphicEffect.color);
+		if (model == null) return;
+
+		Animation animation = animations[type.ordinal()];
+		if (animation == null)
+		{
+			animation = client.loadAnimation(type.animationId);
+			animations[type.ordinal()] = animation;
+		}
+
+		if (pool == null) pool = new RuneLiteObjectPool(client, POOL_SIZE);
+		RuneLiteObject runeLiteObject = pool.acquire(type.lifetimeCycles);
+		runeLiteObject.setModel(model);
+		runeLiteObject.setAnimation(animation);
+		runeLiteObject.setLocation(localPoint, client.getPlane());
+		runeLiteObject.setActive(true);
+	}
+
+	/**
+	 * The cache is keyed by color, so changing an effect's color just misses and the old models age out.
+	 */
+	private Model getModel(GraphicEffect.Type type, int id, Color color)
+	{
+		long key = color == null ? id : ((long) id << 33) | (1L << 32) | (color.getRGB() & 0xffffffffL);
+		Model model = models.get(key);
+		if (model == null)
+		{
+			if (color != null)
+			{
+				ModelData modelData = client.loadModelData(id);
+				if (modelData == null) return null;
+				model = modelData
+					.cloneVertices()
+					.cloneColors()
+					.recolor(type.recolorFrom, JagexColor.rgbToHSL(color.getRGB(), 1.0d))
+					.translate(0, type.modelYOffset, 0)
+					.light()
+				;
+			} else {
+				model = client.loadModel(id);
+			}
+			if (model == null) return null; // not loaded yet, try again next time.
+			models.put(key, model);
+		}
+		return model;
+	}
+
+	private static GraphicEffect[][] emptyEffectsByTrigger()
+	{
+		GraphicEffect[][] effectsByTrigger = new GraphicEffect[GraphicEffect.Trigger.values().length][];
+		for (int i = 0; i < effectsByTrigger.length; i++) effectsByTrigger[i] = NONE;
+		return effectsByTrigger;
+	}
+
+	/**
+	 * Puts the swing in front of the player, facing whatever they are attacking.
+	 */
+	static GraphicEffect.Spawn placeScytheSwing(Client client, Player player)
+	{
+		WorldPoint point = player.getWorldLocation();
+		Actor interacting = player.getInteracting();
+
+		int x = 0, y = 0;
+		int id;
+
+		// I know this can happen if you're attacking a target dummy in varrock, probably also in the poh.
+		if (interacting == null || !(interacting instanceof NPC)) {
+			int orientation = player.getOrientation();
+			// 70 is just a number I felt might work nice here.
+			if (orientation > 512 - 70 && orientation < 512 + 70) {
+				x = -1;
+				id = 4006;
+			} else if (orientation > 1536 - 70 && orientation < 1536 + 70) {
+				x = 1;
+				id = 4003;
+			} else if (orientation > 512 && orientation < 1536) {
+				y = 1;
+				id = 4004;
+			} else {
+				y = -1;
+				id = 4005;
+			}
+		}
+		else
+		{
+			WorldPoint targetPoint = interacting.getWorldLocation();
+			int targetSize = ((NPC) interacting).getTransformedComposition().getSize();
+
+			int halfTargetSizeRoundedDown = (targetSize - 1) / 2;
+			int playerx = point.getX(), playery = point.getY();
+			int npcw = targetPoint.getX(), npcn = targetPoint.getY() + targetSize - 1, npce = targetPoint.getX() + targetSize - 1, npcs = targetPoint.getY();
+			boolean directwest = playerx == npcw - 1 && playery == npcs + halfTargetSizeRoundedDown;
+			boolean directeast = playerx == npce + 1 && playery == npcs + halfTargetSizeRoundedDown;
+			if (directwest) {
+				x = 1;
+				id = 4003;
+			} else if (directeast) {
+				x = -1;
+				id = 4006;
+			} else if (playery >= npcs + halfTargetSizeRoundedDown) {
+				y = -1;
+				id = 4005;
+			} else {
+				y = 1;
+				id = 4004;
+			}
+		}
+
+		return new GraphicEffect.Spawn(new WorldPoint(point.getX() + x, point.getY() + y, point.getPlane()), id);
+	}
+}
@@ -0,0 +1,222 @@
+package com.weaponanimationreplacer;
+
+import java.awt.AlphaComposite;
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.ItemID;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.SpriteManager;
+import net.runelite.client.util.AsyncBufferedImage;
+
+/**
+ * Icons for the side panel's item and spell buttons, so that rebuilding the panel doesn't request and redraw the same
+ * icons again.
+ *
+ * Compositing (overlay text, the "hide slot" bank filler) happens on the executor. Icons are handed out on the EDT, and
+ * the components showing an icon are repainted if its image arrives later.
+ */
+@Singleton
+public class IconCache
+{
+	private static final int MAX_SIZE = 512;
+	/** Shown for sprites that can't be loaded, the size of an item image. Never drawn on. */
+	private static final BufferedImage MISSING_SPRITE = new BufferedImage(36, 32, BufferedImage.TYPE_INT_ARGB);
+
+	@RequiredArgsConstructor
+	enum Kind {
+		ITEM(24),
+		/** An item icon with a bank filler drawn over it, for hidden slots. */
+		HIDDEN_SLOT(24),
+		SPELL_ITEM(10),
+		SPELL_SPRITE(10),
+		;
+
+		/** Where the overlay text's baseline goes. */
+		final int overlayY;
+	}
+
+	@Value
+	static class Key {
+		Kind kind;
+		int id;
+		String overlay;
+	}
+
+	private static class Entry {
+		final ImageIcon icon = new ImageIcon();
+		boolean loaded = false;
+		/** Callbacks waiting for the first image. */
+		List<Consumer<ImageIcon>> waiting = new ArrayList<>();
+		/** Components showing this icon, which need a repaint if the image changes. */
+		final List<WeakReference<Component>> users = new ArrayList<>();
+	}
+
+	@Inject private Client client;
+	@Inject private ClientThread clientThread;
+	@Inject private ItemManager itemManager;
+	@Inject private SpriteManager spriteManager;
+	@Inject private ScheduledExecutorService executor;
+
+	// Only touched on the EDT.
+	private final Map<Key, Entry> cache = new LinkedHashMap<Key, Entry>(64, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+		{
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/**
+	 * Gets the icon for the key and passes it to setIcon, on the EDT. user is repainted if the image changes later.
+	 * Must be called on the EDT.
+	 */
+	public void get(Key key, Component user, Consumer<ImageIcon> setIcon)
+	{
+		Entry entry = cache.get(key);
+		if (entry == null)
+		{
+			entry = new Entry();
+			cache.put(key, entry);
+			load(key);
+		}
+
+		entry.users.removeIf(reference -> reference.get() == null);
+		entry.users.add(new WeakReference<>(user));
+		if (entry.loaded)
+		{
+			setIcon.accept(entry.icon);
+		}
+		else
+		{
+			entry.waiting.add(setIcon);
+		}
+	}
+
+	/**
+	 * Starts loading icons that are about to be needed. Must be called on the EDT.
+	 */
+	public void prefetch(List<Key> keys)
+	{
+		for (Key key : keys)
+		{
+			if (cache.containsKey(key)) continue;
+			cache.put(key, new Entry());
+			load(key);
+		}
+	}
+
+	public void clear()
+	{
+		cache.clear();
+	}
+
+	private void load(Key key)
+	{
+		switch (key.kind)
+		{
+			case SPELL_SPRITE:
+				// Not getSpriteAsync, which never calls back for a sprite that doesn't exist and would leave the entry waiting.
+				clientThread.invoke(() -> {
+					if (client.getGameState().getState() < GameState.LOGIN_SCREEN.getState()) return false; // the cache isn't loaded yet.
+					BufferedImage sprite = spriteManager.getSprite(key.id, 0);
+					BufferedImage image = sprite != null ? sprite : MISSING_SPRITE;
+					executor.execute(() -> imageLoaded(key, compose(key, image, null)));
+					return true;
+				});
+				break;
+			case HIDDEN_SLOT:
+				clientThread.invoke(() -> {
+					AsyncBufferedImage image = itemManager.getImage(key.id);
+					AsyncBufferedImage bankFiller = itemManager.getImage(ItemID.BANK_FILLER);
+					Runnable process = () -> executor.execute(() -> imageLoaded(key, compose(key, image, bankFiller)));
+					// Yes I might end up running it more than once, this stupid asyncbufferedimage doesn't let you know if it's loaded and won't run listeners once it's already been loaded.
+					image.onLoaded(process);
+					bankFiller.onLoaded(process);
+					process.run();
+				});
+				break;
+			default:
+				clientThread.invoke(() -> {
+					AsyncBufferedImage image = itemManager.getImage(key.id);
+					Runnable process = () -> executor.execute(() -> imageLoaded(key, compose(key, image, null)));
+					image.onLoaded(process);
+					process.run();
+				});
+				break;
+		}
+	}
+
+	private static BufferedImage compose(Key key, BufferedImage image, BufferedImage bankFiller)
+	{
+		if (image == null) return null;
+		if (key.overlay == null && bankFiller == null) return image;
+
+		BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = copy.createGraphics();
+		graphics.drawImage(image, 0, 0, null);
+		if (bankFiller != null)
+		{
+			graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+			graphics.drawImage(bankFiller, 0, 0, null);
+		}
+		if (key.overlay != null)
+		{
+			graphics.drawString(key.overlay, 0, key.kind.overlayY);
+		}
+		graphics.dispose();
+		return copy;
+	}
+
+	private void imageLoaded(Key key, BufferedImage image)
+	{
+		if (image == null) return;
+
+		SwingUtilities.invokeLater(() -> {
+			Entry entry = cache.get(key);
+			if (entry == null) return; // evicted in the meantime.
+
+			entry.icon.setImage(image);
+			if (!entry.loaded)
+			{
+				entry.loaded = true;
+				List<Consumer<ImageIcon>> waiting = entry.waiting;
+				entry.waiting = null;
+				for (Consumer<ImageIcon> setIcon : waiting)
+				{
+					setIcon.accept(entry.icon);
+				}
+			}
+
+			for (Iterator<WeakReference<Component>> iterator = entry.users.iterator(); iterator.hasNext(); )
+			{
+				Component user = iterator.next().get();
+				if (user == null)
+				{
+					iterator.remove();
+				}
+				else
+				{
+					user.repaint();
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,112 @@
+package com.weaponanimationreplacer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.client.game.ItemManager;
+
+/**
+ * Item names by id, shared by the side panel, the item search and the tools. Looking up an ItemComposition for every
+ * button, tooltip and search keystroke adds up, and the names only change when the game cache does.
+ *
+ * Names are looked up lazily on the client thread. The client doesn't say when its item definitions change, so they are
+ * thrown away when the item count changes, and by {@link #clear()} whenever the login screen is shown, since game updates
+ * that rename items happen while everyone is logged out.
+ */
+@Singleton
+public class ItemNameCache
+{
+	@Inject private Client client;
+	@Inject private ItemManager itemManager;
+
+	// Replaced, never resized, so that getDisplayNameIfCached can read them from other threads.
+	private volatile String[] names = new String[0];
+	private volatile String[] displayNames = new String[0];
+	private volatile String[] lowerCaseDisplayNames = new String[0];
+
+	/**
+	 * The item's name from the cache. Must be called on the client thread.
+	 */
+	public String getName(int itemId)
+	{
+		if (!checkItemCount(itemId)) return itemManager.getItemComposition(itemId).getName();
+
+		String[] names = this.names;
+		String name = names[itemId];
+		if (name == null)
+		{
+			name = itemManager.getItemComposition(itemId).getName();
+			names[itemId] = name;
+		}
+		return name;
+	}
+
+	/**
+	 * The item's name as shown by this plugin, see {@link Constants#getName}. Must be called on the client thread.
+	 */
+	public String getDisplayName(int itemId)
+	{
+		if (!checkItemCount(itemId)) return Constants.getName(itemId, getName(itemId));
+
+		String[] displayNames = this.displayNames;
+		String displayName = displayNames[itemId];
+		if (displayName == null)
+		{
+			displayName = Constants.getName(itemId, getName(itemId));
+			displayNames[itemId] = displayName;
+		}
+		return displayName;
+	}
+
+	/**
+	 * Lower case display name, for searching. Must be called on the client thread.
+	 */
+	public String getLowerCaseDisplayName(int itemId)
+	{
+		if (!checkItemCount(itemId)) return getDisplayName(itemId).toLowerCase();
+
+		String[] lowerCaseDisplayNames = this.lowerCaseDisplayNames;
+		String name = lowerCaseDisplayNames[itemId];
+		if (name == null)
+		{
+			name = getDisplayName(itemId).toLowerCase();
+			lowerCaseDisplayNames[itemId] = name;
+		}
+		return name;
+	}
+
+	/**
+	 * @return the display name if it has already been looked up, otherwise null. Can be called from any thread.
+	 */
+	public String getDisplayNameIfCached(int itemId)
+	{
+		String[] displayNames = this.displayNames;
+		return itemId >= 0 && itemId < displayNames.length ? displayNames[itemId] : null;
+	}
+
+	/**
+	 * Throws away every name. Must be called on the client thread.
+	 */
+	public void clear()
+	{
+		names = new String[0];
+		displayNames = new String[0];
+		lowerCaseDisplayNames = new String[0];
+	}
+
+	/**
+	 * Clears the names if items were added or removed.
+	 * @return false if itemId isn't a valid index into the name arrays.
+	 */
+	private boolean checkItemCount(int itemId)
+	{
+		int itemCount = client.getItemCount();
+		if (itemCount != names.length)
+		{
+			names = new String[itemCount];
+			displayNames = new String[itemCount];
+			lowerCaseDisplayNames = new String[itemCount];
+		}
+		return itemId >= 0 && itemId < itemCount;
+	}
+}
@@ -0,0 +1,138 @@
+package com.weaponanimationreplacer;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.NPCComposition;
+
+/**
+ * Applies {@link NpcAnimationRules} to npcs.
+ *
+ * The rule for each npc composition is looked up once and kept, along with the npc's own pose animations so that they
+ * can be put back. Compositions are weakly held, so entries go away with the client's own cache.
+ *
+ * Client thread only.
+ */
+@Singleton
+public class NpcAnimationReplacer
+{
+	@Inject private Client client;
+	@Inject private WeaponAnimationReplacerConfig config;
+
+	private static class Resolved
+	{
+		final NpcAnimationRules.Rule rule;
+		final int[] naturalPoseAnimations;
+
+		Resolved(NpcAnimationRules.Rule rule, int[] naturalPoseAnimations)
+		{
+			this.rule = rule;
+			this.naturalPoseAnimations = naturalPoseAnimations;
+		}
+	}
+
+	/** For compositions without a rule. */
+	private static final Resolved NONE = new Resolved(null, null);
+
+	private NpcAnimationRules rules = NpcAnimationRules.EMPTY;
+	private final Map<NPCComposition, Resolved> resolved = new WeakHashMap<>();
+
+	/**
+	 * Reads the rules from the config, and reapplies them to every npc.
+	 */
+	void reload()
+	{
+		removeAll();
+		rules = NpcAnimationRules.parse(config.npcAnimations());
+		for (NPC npc : client.getNpcs())
+		{
+			npcChanged(npc);
+		}
+	}
+
+	/**
+	 * Call when an npc appears or changes into a different npc.
+	 */
+	void npcChanged(NPC npc)
+	{
+		Resolved resolved = resolve(npc);
+		if (resolved == null || !resolved.rule.hasPoseAnimations()) return;
+
+		for (Constants.ActorAnimation animation : Constants.ActorAnimation.values())
+		{
+			int animationId = resolved.rule.getPoseAnimation(animation);
+			if (animationId != -1) animation.setAnimation(npc, animationId);
+		}
+	}
+
+	void animationChanged(NPC npc)
+	{
+		int animation = npc.getAnimation();
+		if (animation == -1) return;
+		Resolved resolved = resolve(npc);
+		if (resolved == null) return;
+
+		int replacement = resolved.rule.getReplacement(animation);
+		if (replacement != -1) npc.setAnimation(replacement);
+	}
+
+	/**
+	 * Puts every npc's pose animations back, and forgets the rules.
+	 */
+	void removeAll()
+	{
+		if (!resolved.isEmpty())
+		{
+			for (NPC npc : client.getNpcs())
+			{
+				NPCComposition composition = getComposition(npc);
+				Resolved resolved = composition == null ? null : this.resolved.get(composition);
+				if (resolved == null || resolved == NONE || !resolved.rule.hasPoseAnimations()) continue;
+
+				for (Constants.ActorAnimation animation : Constants.ActorAnimation.values())
+				{
+					animation.setAnimation(npc, resolved.naturalPoseAnimations[animation.ordinal()]);
+				}
+			}
+			resolved.clear();
+		}
+		rules = NpcAnimationRules.EMPTY;
+	}
+
+	private Resolved resolve(NPC npc)
+	{
+		if (rules.isEmpty()) return null;
+		NPCComposition composition = getComposition(npc);
+		if (composition == null) return null;
+
+		Resolved resolved = this.resolved.get(composition);
+		if (resolved == null)
+		{
+			NpcAnimationRules.Rule rule = rules.get(composition.getId());
+			if (rule == null)
+			{
+				resolved = NONE;
+			}
+			else
+			{
+				int[] naturalPoseAnimations = new int[Constants.ActorAnimation.values().length];
+				for (Constants.ActorAnimation animation : Constants.ActorAnimation.values())
+				{
+					naturalPoseAnimations[animation.ordinal()] = animation.getAnimation(npc);
+				}
+				resolved = new Resolved(rule, naturalPoseAnimations);
+			}
+			this.resolved.put(composition, resolved);
+		}
+		return resolved == NONE ? null : resolved;
+	}
+
+	private static NPCComposition getComposition(NPC npc)
+	{
+		NPCComposition composition = npc.getTransformedComposition();
+		return composition != null ? composition : npc.getComposition();
+	}
+}
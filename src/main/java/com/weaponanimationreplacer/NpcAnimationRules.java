@@ -0,0 +1,175 @@
+package com.weaponanimationreplacer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Animation rules for npcs, compiled from lines like these:
+ * <pre>
+ * 3127: Scythe of Vitur      (use the animation set's idle/walk/run animations)
+ * 3127: 2637>8056, 2638>424  (replace animation 2637 with 8056, and 2638 with 424)
+ * </pre>
+ * Lines that can't be read are ignored, and several lines for the same npc are combined.
+ */
+public class NpcAnimationRules
+{
+	public static final NpcAnimationRules EMPTY = new NpcAnimationRules(new int[0], new Rule[0]);
+
+	public static class Rule
+	{
+		/** By {@link Constants.ActorAnimation#ordinal()}, -1 to leave the npc's own animation. */
+		final int[] poseAnimations = new int[Constants.ActorAnimation.values().length];
+		int[] from = new int[0];
+		int[] to = new int[0];
+
+		Rule()
+		{
+			Arrays.fill(poseAnimations, -1);
+		}
+
+		public boolean hasPoseAnimations()
+		{
+			for (int animation : poseAnimations)
+			{
+				if (animation != -1) return true;
+			}
+			return false;
+		}
+
+		public int getPoseAnimation(Constants.ActorAnimation animation)
+		{
+			return poseAnimations[animation.ordinal()];
+		}
+
+		/**
+		 * @return the animation to use instead, or -1 if this one isn't replaced.
+		 */
+		public int getReplacement(int animation)
+		{
+			for (int i = 0; i < from.length; i++)
+			{
+				if (from[i] == animation) return to[i];
+			}
+			return -1;
+		}
+
+		private void addReplacement(int fromAnimation, int toAnimation)
+		{
+			from = Arrays.copyOf(from, from.length + 1);
+			to = Arrays.copyOf(to, to.length + 1);
+			from[from.length - 1] = fromAnimation;
+			to[to.length - 1] = toAnimation;
+		}
+	}
+
+	/** Sorted, for binary search. */
+	private final int[] npcIds;
+	private final Rule[] rules;
+
+	private NpcAnimationRules(int[] npcIds, Rule[] rules)
+	{
+		this.npcIds = npcIds;
+		this.rules = rules;
+	}
+
+	public boolean isEmpty()
+	{
+		return npcIds.length == 0;
+	}
+
+	/**
+	 * @return the rule for the npc id, or null if there isn't one.
+	 */
+	public Rule get(int npcId)
+	{
+		int index = Arrays.binarySearch(npcIds, npcId);
+		return index >= 0 ? rules[index] : null;
+	}
+
+	public static NpcAnimationRules parse(String text)
+	{
+		return parse(text, AnimationSet::getAnimationSet);
+	}
+
+	static NpcAnimationRules parse(String text, Function<String, AnimationSet> animationSets)
+	{
+		if (text == null || text.trim().isEmpty()) return EMPTY;
+
+		Map<Integer, Rule> rulesById = new TreeMap<>();
+		for (String line : text.split("\n"))
+		{
+			int colon = line.indexOf(':');
+			if (colon == -1) continue;
+
+			int npcId;
+			try
+			{
+				npcId = Integer.parseInt(line.substring(0, colon).trim());
+			}
+			catch (NumberFormatException e)
+			{
+				continue;
+			}
+
+			String value = line.substring(colon + 1).trim();
+			if (value.isEmpty()) continue;
+			if (value.indexOf('>') != -1)
+			{
+				List<int[]> replacements = parseReplacements(value);
+				if (replacements.isEmpty()) continue;
+				Rule rule = rulesById.computeIfAbsent(npcId, id -> new Rule());
+				for (int[] replacement : replacements)
+				{
+					rule.addReplacement(replacement[0], replacement[1]);
+				}
+			}
+			else
+			{
+				AnimationSet animationSet = animationSets.apply(value);
+				if (animationSet == null) continue;
+				Rule rule = rulesById.computeIfAbsent(npcId, id -> new Rule());
+				for (Constants.ActorAnimation animation : Constants.ActorAnimation.values())
+				{
+					rule.poseAnimations[animation.ordinal()] = animationSet.getAnimation(animation.getType());
+				}
+			}
+		}
+
+		if (rulesById.isEmpty()) return EMPTY;
+		int[] npcIds = new int[rulesById.size()];
+		Rule[] rules = new Rule[rulesById.size()];
+		int i = 0;
+		for (Map.Entry<Integer, Rule> entry : rulesById.entrySet())
+		{
+			npcIds[i] = entry.getKey();
+			rules[i] = entry.getValue();
+			i++;
+		}
+		return new NpcAnimationRules(npcIds, rules);
+	}
+
+	private static List<int[]> parseReplacements(String value)
+	{
+		List<int[]> replacements = new ArrayList<>();
+		for (String part : value.split(","))
+		{
+			int arrow = part.indexOf('>');
+			if (arrow == -1) continue;
+			try
+			{
+				int from = Integer.parseInt(part.substring(0, arrow).trim());
+				int to = Integer.parseInt(part.substring(arrow + 1).trim());
+				replacements.add(new int[]{from, to});
+			}
+			catch (NumberFormatException e)
+			{
+				// ignore this one.
+			}
+		}
+		return replacements;
+	}
+}
@@ -0,0 +1,241 @@
+package com.weaponanimationreplacer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.client.util.Text;
+
+/**
+ * Other players that the plugin's opt-in features apply to, chosen by clan membership and/or a list of names. State is
+ * kept in arrays indexed by player index, and only tracked players are ever looked at, so a busy world costs nothing
+ * beyond checking each player when they appear or change.
+ *
+ * Client thread only.
+ */
+@Singleton
+public class OtherPlayerTracker
+{
+	private static final int MAX_PLAYERS = 2048;
+
+	@Inject private Client client;
+	@Inject private WeaponAnimationReplacerConfig config;
+	@Inject private WeaponAnimationReplacerPlugin plugin;
+
+	private WeaponAnimationReplacerConfig.OtherPlayers mode = WeaponAnimationReplacerConfig.OtherPlayers.OFF;
+	private Set<String> names = new HashSet<>();
+	private boolean replaceSpells = false;
+	private boolean transmog = false;
+
+	private final boolean[] tracked = new boolean[MAX_PLAYERS];
+	private int trackedCount = 0;
+	/** The animation each tracked player is really doing, before any replacement. */
+	private final int[] lastAnimations = new int[MAX_PLAYERS];
+	/** The projectile swaps for each tracked player's gear, or null until needed. */
+	@SuppressWarnings("unchecked")
+	private final List<ProjectileSwap>[] projectileSwaps = new List[MAX_PLAYERS];
+	/** The config snapshot version projectileSwaps was worked out for. */
+	private long projectileSwapsVersion = -1;
+
+	/** Tracked players by the local point they stand on, for finding who a projectile came from. Rebuilt each tick. */
+	private final Map<Integer, Player> playersByTile = new HashMap<>();
+	private int playersByTileTick = -1;
+
+	{
+		Arrays.fill(lastAnimations, -1);
+	}
+
+	/**
+	 * Reads the config and works out again who is tracked.
+	 */
+	void reload()
+	{
+		mode = config.otherPlayers();
+		replaceSpells = config.otherPlayersSpells();
+		transmog = config.otherPlayersTransmog();
+		names = new HashSet<>();
+		for (String name : Text.fromCSV(config.otherPlayersNames()))
+		{
+			names.add(Text.standardize(name));
+		}
+
+		Arrays.fill(tracked, false);
+		Arrays.fill(projectileSwaps, null);
+		trackedCount = 0;
+		playersByTileTick = -1;
+		if (mode == WeaponAnimationReplacerConfig.OtherPlayers.OFF) return;
+		for (Player player : client.getPlayers())
+		{
+			update(player);
+		}
+	}
+
+	boolean isReplacingSpells()
+	{
+		return replaceSpells && trackedCount > 0;
+	}
+
+	boolean isTransmogEnabled()
+	{
+		return transmog && trackedCount > 0;
+	}
+
+	/**
+	 * Call when a player appears or their appearance changes.
+	 */
+	void update(Player player)
+	{
+		int index = player.getId();
+		if (index < 0 || index >= MAX_PLAYERS) return;
+
+		boolean track = player != client.getLocalPlayer() && matches(player);
+		if (track != tracked[index])
+		{
+			tracked[index] = track;
+			trackedCount += track ? 1 : -1;
+			playersByTileTick = -1;
+		}
+		if (!track) lastAnimations[index] = -1;
+		projectileSwaps[index] = null; // their gear might have changed.
+	}
+
+	boolean isTrackingClan()
+	{
+		return mode == WeaponAnimationReplacerConfig.OtherPlayers.CLAN || mode == WeaponAnimationReplacerConfig.OtherPlayers.CLAN_AND_NAMES;
+	}
+
+	/**
+	 * Call when people join or leave the clan or the friends chat, since that can change whether they're tracked.
+	 *
+	 * @param names standardized names.
+	 * @return the players here with those names.
+	 */
+	List<Player> membershipChanged(Set<String> names)
+	{
+		List<Player> players = new ArrayList<>();
+		if (!isTrackingClan() || names.isEmpty()) return players;
+
+		for (Player player : client.getPlayers())
+		{
+			if (player.getName() != null && names.contains(Text.standardize(player.getName())))
+			{
+				update(player);
+				players.add(player);
+			}
+		}
+		return players;
+	}
+
+	void despawned(Player player)
+	{
+		int index = player.getId();
+		if (index < 0 || index >= MAX_PLAYERS || !tracked[index]) return;
+		tracked[index] = false;
+		trackedCount--;
+		lastAnimations[index] = -1;
+		projectileSwaps[index] = null;
+		playersByTileTick = -1;
+	}
+
+	boolean isTracked(Player player)
+	{
+		int index = player.getId();
+		return index >= 0 && index < MAX_PLAYERS && tracked[index];
+	}
+
+	void animationChanged(Player player)
+	{
+		if (isTracked(player)) lastAnimations[player.getId()] = player.getAnimation();
+	}
+
+	int getLastAnimation(Player player)
+	{
+		return isTracked(player) ? lastAnimations[player.getId()] : -1;
+	}
+
+	/**
+	 * @return the projectile swaps for the tracked player's gear. Kept until their appearance or the transmog sets change.
+	 */
+	List<ProjectileSwap> getProjectileSwaps(Player player)
+	{
+		long version = plugin.getConfigSnapshot().getVersion();
+		if (version != projectileSwapsVersion)
+		{
+			Arrays.fill(projectileSwaps, null);
+			projectileSwapsVersion = version;
+		}
+
+		int index = player.getId();
+		List<ProjectileSwap> swaps = projectileSwaps[index];
+		if (swaps == null)
+		{
+			swaps = plugin.getProjectileSwaps(player);
+			projectileSwaps[index] = swaps;
+		}
+		return swaps;
+	}
+
+	/**
+	 * @return the tracked player standing at this local point, or null.
+	 */
+	Player getPlayerAt(int localX, int localY)
+	{
+		if (!isReplacingSpells()) return null;
+
+		int tick = client.getTickCount();
+		if (tick != playersByTileTick)
+		{
+			playersByTileTick = tick;
+			playersByTile.clear();
+			for (Player player : client.getPlayers())
+			{
+				if (!isTracked(player)) continue;
+				// Projectiles start from the player's actual location, see onProjectileMoved.
+				WorldPoint worldLocation = player.getWorldLocation();
+				LocalPoint localPoint = worldLocation == null ? null : LocalPoint.fromWorld(client, worldLocation);
+				if (localPoint == null) continue;
+				playersByTile.put(pack(localPoint.getX(), localPoint.getY()), player);
+			}
+		}
+		return playersByTile.get(pack(localX, localY));
+	}
+
+	private boolean matches(Player player)
+	{
+		switch (mode)
+		{
+			case CLAN:
+				return isClanmate(player);
+			case NAMES:
+				return hasListedName(player);
+			case CLAN_AND_NAMES:
+				return isClanmate(player) || hasListedName(player);
+			default:
+				return false;
+		}
+	}
+
+	private static boolean isClanmate(Player player)
+	{
+		return player.isClanMember() || player.isFriendsChatMember();
+	}
+
+	private boolean hasListedName(Player player)
+	{
+		return player.getName() != null && names.contains(Text.standardize(player.getName()));
+	}
+
+	private static int pack(int localX, int localY)
+	{
+		return localX << 16 | (localY & 0xffff);
+	}
+}
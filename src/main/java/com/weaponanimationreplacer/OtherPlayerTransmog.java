@@ -0,0 +1,190 @@
+package com.weaponanimationreplacer;
+
+import com.weaponanimationreplacer.Swap.AnimationType;
+import java.util.Arrays;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.PlayerComposition;
+
+/**
+ * Applies the transmog sets to the other players picked by {@link OtherPlayerTracker}, based on the gear each of them is
+ * wearing.
+ *
+ * Everything is worked out when a player appears, changes gear, or the sets change, and kept in arrays indexed by
+ * player index, so an animation change is a lookup and players that aren't tracked are never looked at.
+ *
+ * Client thread only.
+ */
+@Singleton
+public class OtherPlayerTransmog
+{
+	private static final int MAX_PLAYERS = 2048;
+	private static final int POSES = Constants.ActorAnimation.values().length;
+	private static final int TYPES = AnimationType.values().length;
+
+	@Inject private Client client;
+	@Inject private WeaponAnimationReplacerPlugin plugin;
+	@Inject private OtherPlayerTracker tracker;
+
+	private final boolean[] applied = new boolean[MAX_PLAYERS];
+	/** The kits the game gave each player, or null if they need to be read again. */
+	private final int[][] originalKits = new int[MAX_PLAYERS][];
+	/** The hash of the kits after transmog, so that our own changes aren't mistaken for gear changes. */
+	private final int[] transmogHashes = new int[MAX_PLAYERS];
+	private final int[] naturalPoseAnimations = new int[MAX_PLAYERS * POSES];
+	/** Replacement animations by {@link AnimationType#ordinal()}, -1 for none. */
+	private final int[] animations = new int[MAX_PLAYERS * TYPES];
+
+	/**
+	 * Reapplies to every player, for when the sets or the config changed.
+	 */
+	void refreshAll()
+	{
+		for (Player player : client.getPlayers())
+		{
+			int index = player.getId();
+			if (index < 0 || index >= MAX_PLAYERS) continue;
+
+			if (isWanted(player))
+			{
+				apply(player);
+			}
+			else if (applied[index])
+			{
+				restore(player);
+			}
+		}
+	}
+
+	/**
+	 * Call when a player appears or their appearance changes.
+	 */
+	void playerChanged(Player player)
+	{
+		int index = player.getId();
+		if (index < 0 || index >= MAX_PLAYERS) return;
+
+		if (!isWanted(player))
+		{
+			if (applied[index]) restore(player);
+			return;
+		}
+
+		PlayerComposition composition = player.getPlayerComposition();
+		if (composition == null) return;
+		if (applied[index])
+		{
+			if (Arrays.hashCode(composition.getEquipmentIds()) == transmogHashes[index]) return;
+			// The game has put their real kits back, which might be different gear.
+			originalKits[index] = null;
+		}
+		apply(player);
+	}
+
+	void animationChanged(Player player)
+	{
+		int index = player.getId();
+		if (index < 0 || index >= MAX_PLAYERS || !applied[index]) return;
+
+		int animation = player.getAnimation();
+		if (animation == -1) return;
+		AnimationType type = AnimationSet.getAnimationType(animation);
+		if (type == null) return;
+
+		int replacement = animations[index * TYPES + type.ordinal()];
+		if (replacement != -1) player.setAnimation(replacement);
+	}
+
+	void despawned(Player player)
+	{
+		int index = player.getId();
+		if (index < 0 || index >= MAX_PLAYERS) return;
+		forget(index);
+	}
+
+	/**
+	 * Puts every player back to how they were.
+	 */
+	void removeAll()
+	{
+		for (Player player : client.getPlayers())
+		{
+			int index = player.getId();
+			if (index >= 0 && index < MAX_PLAYERS && applied[index]) restore(player);
+		}
+		Arrays.fill(applied, false);
+		Arrays.fill(originalKits, null);
+	}
+
+	private boolean isWanted(Player player)
+	{
+		return tracker.isTransmogEnabled() && tracker.isTracked(player);
+	}
+
+	private void apply(Player player)
+	{
+		int index = player.getId();
+		PlayerComposition composition = player.getPlayerComposition();
+		if (composition == null) return;
+
+		int[] kits = composition.getEquipmentIds();
+		if (originalKits[index] != null)
+		{
+			System.arraycopy(originalKits[index], 0, kits, 0, kits.length);
+		}
+		else
+		{
+			originalKits[index] = kits.clone();
+			for (Constants.ActorAnimation animation : Constants.ActorAnimation.values())
+			{
+				naturalPoseAnimations[index * POSES + animation.ordinal()] = animation.getAnimation(player);
+			}
+		}
+
+		List<Integer> equippedItems = plugin.getEquippedItems(player);
+		List<Swap> swaps = plugin.getApplicableSwaps(equippedItems);
+
+		TransmogrificationManager.applyModelSwaps(kits, plugin.getApplicableModelSwaps(swaps, equippedItems), originalKits[index], composition.getGender());
+		composition.setHash();
+		transmogHashes[index] = Arrays.hashCode(kits);
+
+		WeaponAnimationReplacerPlugin.resolveAnimationReplacements(swaps, animations, index * TYPES);
+		if (!AnimationSet.doNotReplaceIdles.contains(naturalPoseAnimations[index * POSES + Constants.ActorAnimation.IDLE.ordinal()]))
+		{
+			for (Constants.ActorAnimation animation : Constants.ActorAnimation.values())
+			{
+				int animationId = animations[index * TYPES + animation.getType().ordinal()];
+				animation.setAnimation(player, animationId != -1 ? animationId : naturalPoseAnimations[index * POSES + animation.ordinal()]);
+			}
+		}
+
+		applied[index] = true;
+	}
+
+	private void restore(Player player)
+	{
+		int index = player.getId();
+		PlayerComposition composition = player.getPlayerComposition();
+		if (composition != null && originalKits[index] != null)
+		{
+			int[] kits = composition.getEquipmentIds();
+			System.arraycopy(originalKits[index], 0, kits, 0, kits.length);
+			composition.setHash();
+
+			for (Constants.ActorAnimation animation : Constants.ActorAnimation.values())
+			{
+				animation.setAnimation(player, naturalPoseAnimations[index * POSES + animation.ordinal()]);
+			}
+		}
+		forget(index);
+	}
+
+	private void forget(int index)
+	{
+		applied[index] = false;
+		originalKits[index] = null;
+	}
+}
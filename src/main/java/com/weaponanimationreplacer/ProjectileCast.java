@@ -33,6 +33,12 @@ public final class ProjectileCast
 		return new ProjectileCast(toCopy.id, toCopy.name, toCopy.itemIdIcon, toCopy.spriteIdIcon, toCopy.castAnimation, toCopy.castGfx, toCopy.projectileId, toCopy.hitGfx, toCopy.hitGfxHeight, toCopy.startMovement, toCopy.startHeight, toCopy.height, toCopy.endHeight, toCopy.slope, true);
 	}
 
+	/** Unlike {@link #copy(ProjectileCast)}, this does not mark the copy as artificial. */
+	public static ProjectileCast exactCopy(ProjectileCast toCopy)
+	{
+		return new ProjectileCast(toCopy.id, toCopy.name, toCopy.itemIdIcon, toCopy.spriteIdIcon, toCopy.castAnimation, toCopy.castGfx, toCopy.projectileId, toCopy.hitGfx, toCopy.hitGfxHeight, toCopy.startMovement, toCopy.startHeight, toCopy.height, toCopy.endHeight, toCopy.slope, toCopy.artificial);
+	}
+
 	public String getName(ItemManager itemManager) {
 		return name != null ? name : itemManager.getItemComposition(itemIdIcon).getName() + itemIdIcon;
 	}
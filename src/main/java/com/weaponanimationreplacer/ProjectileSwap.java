@@ -26,6 +26,16 @@ public class ProjectileSwap
 		return new ProjectileSwap();
 	}
 
+	public ProjectileSwap copy()
+	{
+		ProjectileSwap copy = new ProjectileSwap();
+		copy.toReplace = toReplace;
+		copy.toReplaceWith = toReplaceWith;
+		copy.toReplaceCustom = toReplaceCustom != null ? ProjectileCast.exactCopy(toReplaceCustom) : null;
+		copy.toReplaceWithCustom = toReplaceWithCustom != null ? ProjectileCast.exactCopy(toReplaceWithCustom) : null;
+		return copy;
+	}
+
 	public void createCustomIfNull()
 	{
 		if (toReplaceWithCustom != null) return;
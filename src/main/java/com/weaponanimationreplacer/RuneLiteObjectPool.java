@@ -0,0 +1,90 @@
+package com.weaponanimationreplacer;
+
+import java.util.Arrays;
+import net.runelite.api.Client;
+import net.runelite.api.RuneLiteObject;
+
+/**
+ * A few RuneLiteObjects reused for short-lived effects, instead of creating one per effect and leaving it in the scene.
+ * Each object is deactivated once its lifetime (in game cycles) is up, or when the pool is cleared.
+ *
+ * Client thread only.
+ */
+class RuneLiteObjectPool
+{
+	private static final int FREE = -1;
+
+	private final Client client;
+	private final RuneLiteObject[] objects;
+	/** Game cycle at which each object is deactivated, or FREE. */
+	private final int[] expiresAt;
+
+	RuneLiteObjectPool(Client client, int size)
+	{
+		this.client = client;
+		this.objects = new RuneLiteObject[size];
+		this.expiresAt = new int[size];
+		Arrays.fill(expiresAt, FREE);
+	}
+
+	/**
+	 * @return an inactive object to set up and activate. If every object is in use, the one closest to expiring is taken.
+	 */
+	RuneLiteObject acquire(int lifetimeCycles)
+	{
+		int slot = 0;
+		for (int i = 0; i < objects.length; i++)
+		{
+			if (expiresAt[i] == FREE)
+			{
+				slot = i;
+				break;
+			}
+			if (expiresAt[i] < expiresAt[slot]) slot = i;
+		}
+
+		RuneLiteObject object = objects[slot];
+		if (object == null)
+		{
+			object = client.createRuneLiteObject();
+			objects[slot] = object;
+		}
+		else
+		{
+			object.setActive(false);
+		}
+		expiresAt[slot] = client.getGameCycle() + lifetimeCycles;
+		return object;
+	}
+
+	/**
+	 * Deactivates objects whose lifetime is up. Call every client tick.
+	 */
+	void tick()
+	{
+		int gameCycle = client.getGameCycle();
+		for (int i = 0; i < objects.length; i++)
+		{
+			if (expiresAt[i] != FREE && gameCycle >= expiresAt[i])
+			{
+				objects[i].setActive(false);
+				expiresAt[i] = FREE;
+			}
+		}
+	}
+
+	/**
+	 * Deactivates everything, e.g. when the scene is reloaded or the plugin stops.
+	 */
+	void clear()
+	{
+		for (int i = 0; i < objects.length; i++)
+		{
+			if (expiresAt[i] != FREE)
+			{
+				objects[i].setActive(false);
+				expiresAt[i] = FREE;
+			}
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.weaponanimationreplacer;
+
+import java.util.Objects;
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+
+/**
+ * A combo box model over an array that many combo boxes share. Only the selection belongs to each model, so a row
+ * doesn't have to copy every animation set just to show a dropdown.
+ *
+ * The array must not be modified once it is handed to this.
+ */
+class SharedComboBoxModel<E> extends AbstractListModel<E> implements ComboBoxModel<E>
+{
+	private final E[] items;
+	private Object selectedItem;
+
+	SharedComboBoxModel(E[] items)
+	{
+		this.items = items;
+		selectedItem = items.length > 0 ? items[0] : null; // Same starting selection as DefaultComboBoxModel.
+	}
+
+	@Override
+	public int getSize()
+	{
+		return items.length;
+	}
+
+	@Override
+	public E getElementAt(int index)
+	{
+		return items[index];
+	}
+
+	@Override
+	public void setSelectedItem(Object item)
+	{
+		if (Objects.equals(selectedItem, item)) return;
+
+		selectedItem = item;
+		fireContentsChanged(this, -1, -1); // Same as DefaultComboBoxModel, this is how the combo box hears about it.
+	}
+
+	@Override
+	public Object getSelectedItem()
+	{
+		return selectedItem;
+	}
+}
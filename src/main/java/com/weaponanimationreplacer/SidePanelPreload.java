@@ -0,0 +1,54 @@
+package com.weaponanimationreplacer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Value;
+import net.runelite.api.kit.KitType;
+
+/**
+ * Things the side panel needs that can be worked out before it is built: item names, which need the client thread and
+ * are put in the {@link ItemNameCache}, and the icons to start loading. Doing this up front means the EDT only has to
+ * put the components together.
+ */
+@Value
+public class SidePanelPreload
+{
+	static final SidePanelPreload EMPTY = new SidePanelPreload(Collections.emptyList());
+
+	List<IconCache.Key> icons;
+
+	/**
+	 * Must be called on the client thread.
+	 */
+	static SidePanelPreload collect(WeaponAnimationReplacerPlugin plugin, List<TransmogSet> transmogSets)
+	{
+		if (transmogSets == null) return EMPTY;
+
+		Set<IconCache.Key> icons = new LinkedHashSet<>();
+		for (TransmogSet transmogSet : transmogSets)
+		{
+			if (transmogSet.isMinimized()) continue; // nothing of it is shown.
+			for (Swap swap : transmogSet.getSwaps())
+			{
+				for (Integer itemId : swap.getItemRestrictions())
+				{
+					if (itemId < 0) continue;
+					plugin.itemNameCache.getDisplayName(itemId);
+					icons.add(new IconCache.Key(IconCache.Kind.ITEM, Constants.getIconId(itemId), null));
+				}
+				for (Integer itemId : swap.getModelSwaps())
+				{
+					if (itemId < 0) continue;
+					plugin.itemNameCache.getDisplayName(itemId);
+					int slotOverride = swap.getSlotOverride(itemId);
+					String overlayString = slotOverride != -1 ? KitType.values()[slotOverride].name() : null;
+					icons.add(new IconCache.Key(IconCache.Kind.ITEM, Constants.getIconId(itemId), overlayString));
+				}
+			}
+		}
+		return new SidePanelPreload(new ArrayList<>(icons));
+	}
+}
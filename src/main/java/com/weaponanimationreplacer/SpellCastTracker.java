@@ -0,0 +1,142 @@
+package com.weaponanimationreplacer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.events.GraphicChanged;
+import net.runelite.api.events.MenuOptionClicked;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.util.Text;
+
+/**
+ * Keeps track of what the local player has been casting, for telling apart spells that share a cast animation and
+ * have no projectile (god spells, ancient bursts and barrages).
+ *
+ * The real spell's hit graphic is on the target as soon as it's cast, which identifies it unless the spell splashed. For
+ * splashes, the spell clicked in the last couple of ticks is used, or for autocasts the spell that was last seen being
+ * autocast with the same autocast setting.
+ *
+ * Client thread only.
+ */
+@Singleton
+public class SpellCastTracker
+{
+	static final int SPLASH_GRAPHIC = 85;
+	private static final int AUTOCAST_VARBIT = 276;
+	/** A clicked spell is cast on the same or the next tick. */
+	private static final int CAST_TICKS = 2;
+	private static final int CAST_RING_SIZE = 4;
+	private static final int SPLASH_RING_SIZE = 16;
+
+	@Inject
+	private Client client;
+
+	// Spells clicked, newest at castRingIndex - 1.
+	private final int[] castTicks = new int[CAST_RING_SIZE];
+	private final String[] castNames = new String[CAST_RING_SIZE];
+	private int castRingIndex = 0;
+
+	// Actors that got a splash graphic, newest at splashRingIndex - 1.
+	private final int[] splashTicks = new int[SPLASH_RING_SIZE];
+	private final Actor[] splashActors = new Actor[SPLASH_RING_SIZE];
+	private int splashRingIndex = 0;
+
+	private int autocast = 0;
+	/** Names of spells seen being autocast, by autocast varbit value. */
+	private final String[] autocastNames = new String[128];
+
+	@Subscribe
+	public void onMenuOptionClicked(MenuOptionClicked e)
+	{
+		if (!"Cast".equals(e.getMenuOption())) return;
+
+		String target = Text.removeTags(e.getMenuTarget());
+		int arrow = target.indexOf(" -> ");
+		String spellName = arrow == -1 ? target : target.substring(0, arrow);
+		castTicks[castRingIndex] = client.getTickCount();
+		castNames[castRingIndex] = spellName;
+		castRingIndex = (castRingIndex + 1) % CAST_RING_SIZE;
+	}
+
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged e)
+	{
+		if (e.getVarbitId() != AUTOCAST_VARBIT) return;
+		autocast = e.getValue();
+	}
+
+	@Subscribe
+	public void onGraphicChanged(GraphicChanged e)
+	{
+		Actor actor = e.getActor();
+		if (actor.getGraphic() != SPLASH_GRAPHIC) return;
+
+		splashTicks[splashRingIndex] = client.getTickCount();
+		splashActors[splashRingIndex] = actor;
+		splashRingIndex = (splashRingIndex + 1) % SPLASH_RING_SIZE;
+	}
+
+	/**
+	 * @return whether the local player's cast that just started on target is this spell. Only meaningful for spells
+	 * that have a hit graphic and no projectile.
+	 */
+	boolean isCast(ProjectileCast spell, Actor target)
+	{
+		String manualCast = getRecentCast();
+		int graphic = target.getGraphic();
+		if (graphic != -1 && graphic == spell.getHitGfx())
+		{
+			if (manualCast == null && autocast > 0 && autocast < autocastNames.length)
+			{
+				autocastNames[autocast] = spell.getName();
+			}
+			return true;
+		}
+		// Some other spell's hit graphic.
+		if (graphic != -1 && graphic != SPLASH_GRAPHIC && !splashedThisTick(target)) return false;
+
+		if (manualCast != null) return manualCast.equalsIgnoreCase(spell.getName());
+		if (autocast > 0 && autocast < autocastNames.length) return spell.getName().equalsIgnoreCase(autocastNames[autocast]);
+		return false;
+	}
+
+	/**
+	 * Forgets everything, e.g. on logout, since autocast values could differ between accounts.
+	 */
+	/**
+	 * Reads the current autocast setting, which onVarbitChanged only sees when it changes. Call when registering.
+	 */
+	void init()
+	{
+		autocast = client.getVarbitValue(AUTOCAST_VARBIT);
+	}
+
+	void clear()
+	{
+		for (int i = 0; i < CAST_RING_SIZE; i++) castNames[i] = null;
+		for (int i = 0; i < SPLASH_RING_SIZE; i++) splashActors[i] = null;
+		for (int i = 0; i < autocastNames.length; i++) autocastNames[i] = null;
+		autocast = 0;
+	}
+
+	private String getRecentCast()
+	{
+		int newest = (castRingIndex + CAST_RING_SIZE - 1) % CAST_RING_SIZE;
+		if (castNames[newest] == null || client.getTickCount() - castTicks[newest] > CAST_TICKS) return null;
+		return castNames[newest];
+	}
+
+	boolean splashedThisTick(Actor actor)
+	{
+		int tick = client.getTickCount();
+		for (int n = 1; n <= SPLASH_RING_SIZE; n++)
+		{
+			int i = (splashRingIndex + SPLASH_RING_SIZE - n) % SPLASH_RING_SIZE;
+			if (splashActors[i] == null || splashTicks[i] != tick) return false;
+			if (splashActors[i] == actor) return true;
+		}
+		return false;
+	}
+}
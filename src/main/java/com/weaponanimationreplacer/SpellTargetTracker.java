@@ -0,0 +1,80 @@
+package com.weaponanimationreplacer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.runelite.api.Actor;
+
+/**
+ * Actors that got the hit graphic of a replaced spell this tick. Multi-target spells like barrages put their hit graphic
+ * on every target at once, so this lets the replacement be applied to all of them without scanning every npc.
+ *
+ * Client thread only.
+ */
+class SpellTargetTracker
+{
+	/** Multi-target spells hit a 3x3 area around the main target. */
+	private static final int AREA_RADIUS = 1;
+
+	/** Indexed by graphic id. */
+	private boolean[] watched = new boolean[0];
+	private final List<Actor> hits = new ArrayList<>();
+
+	/**
+	 * Watches the hit graphics of the multi-target spells among these swaps.
+	 */
+	void setWatchedGraphics(List<ProjectileSwap> projectileSwaps)
+	{
+		int max = -1;
+		for (ProjectileSwap projectileSwap : projectileSwaps)
+		{
+			if (isMultiTarget(projectileSwap.getToReplace())) max = Math.max(max, projectileSwap.getToReplace().getHitGfx());
+		}
+		boolean[] watched = new boolean[max + 1];
+		for (ProjectileSwap projectileSwap : projectileSwaps)
+		{
+			int hitGfx = projectileSwap.getToReplace().getHitGfx();
+			if (hitGfx >= 0 && isMultiTarget(projectileSwap.getToReplace())) watched[hitGfx] = true;
+		}
+		this.watched = watched;
+	}
+
+	static boolean isMultiTarget(ProjectileCast spell)
+	{
+		SpellTiming timing = Constants.getSpellTiming(spell);
+		return timing != null && timing.isMultiTarget();
+	}
+
+	void graphicChanged(Actor actor)
+	{
+		int graphic = actor.getGraphic();
+		if (graphic >= 0 && graphic < watched.length && watched[graphic])
+		{
+			hits.add(actor);
+		}
+	}
+
+	/**
+	 * @return actors other than mainTarget that got this graphic this tick, within the spell's area around mainTarget.
+	 */
+	List<Actor> getOtherTargets(Actor mainTarget, int graphic)
+	{
+		List<Actor> otherTargets = null;
+		for (Actor actor : hits)
+		{
+			if (actor == mainTarget || actor.getGraphic() != graphic) continue;
+			if (mainTarget.getWorldArea().distanceTo(actor.getWorldArea()) > AREA_RADIUS) continue;
+			if (otherTargets == null) otherTargets = new ArrayList<>();
+			otherTargets.add(actor);
+		}
+		return otherTargets != null ? otherTargets : Collections.emptyList();
+	}
+
+	/**
+	 * Call at the end of each client tick.
+	 */
+	void clear()
+	{
+		if (!hits.isEmpty()) hits.clear();
+	}
+}
@@ -0,0 +1,30 @@
+package com.weaponanimationreplacer;
+
+import lombok.Value;
+
+/**
+ * How long a spell without a projectile takes to hit, so that a replacement projectile can be timed to land when the
+ * real spell does. Loaded from data.json by spell id, see https://oldschool.runescape.wiki/w/Hit_delay.
+ */
+@Value
+public class SpellTiming
+{
+	/** Travel time in game cycles at a distance of 0. */
+	int travelBase;
+	int travelPerTile;
+	/** Whether the replacement's start movement is part of the travel time, rather than added on top of it. */
+	boolean includesStartMovement;
+	/** Barrages measure distance to the target's south-west tile instead of its closest edge. */
+	boolean barrage;
+	/** Bursts and barrages also hit everything around the main target. */
+	boolean multiTarget;
+
+	/**
+	 * @return game cycles from the cast until the spell hits.
+	 */
+	public int getHitCycles(int distance, ProjectileCast replacement)
+	{
+		int travel = travelBase + travelPerTile * distance;
+		return includesStartMovement ? travel : replacement.getStartMovement() + travel;
+	}
+}
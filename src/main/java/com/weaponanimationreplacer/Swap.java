@@ -88,6 +88,29 @@ public class Swap
 		this.triggerItemSlotOverrides = new HashMap<>(triggerItemSlotOverrides);
     }
 
+	/**
+	 * Deep copy. AnimationSets are shared since they are never modified after loading.
+	 */
+	public Swap copy()
+	{
+		List<AnimationReplacement> animationReplacementsCopy = new ArrayList<>(animationReplacements.size());
+		for (AnimationReplacement animationReplacement : animationReplacements)
+		{
+			animationReplacementsCopy.add(animationReplacement.copy());
+		}
+		List<ProjectileSwap> projectileSwapsCopy = new ArrayList<>(projectileSwaps.size());
+		for (ProjectileSwap projectileSwap : projectileSwaps)
+		{
+			projectileSwapsCopy.add(projectileSwap.copy());
+		}
+		List<GraphicEffect> graphicEffectsCopy = new ArrayList<>(graphicEffects.size());
+		for (GraphicEffect graphicEffect : graphicEffects)
+		{
+			graphicEffectsCopy.add(graphicEffect.copy());
+		}
+		return new Swap(itemRestrictions, modelSwaps, animationReplacementsCopy, projectileSwapsCopy, graphicEffectsCopy, slotOverrides, triggerItemSlotOverrides);
+	}
+
     public List<Integer> getItemRestrictions() {
     	return Collections.unmodifiableList(itemRestrictions);
 	}
@@ -337,6 +360,13 @@ public class Swap
 			return new AnimationReplacement(null, null, null);
 		}
 
+		public AnimationReplacement copy()
+		{
+			AnimationReplacement copy = new AnimationReplacement(animationSet, animationtypeToReplace, animationtypeReplacement);
+			copy.auto = auto;
+			return copy;
+		}
+
 		// For gson.
 		public AnimationReplacement() {
 			auto = -1;
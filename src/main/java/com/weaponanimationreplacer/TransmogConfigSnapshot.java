@@ -0,0 +1,57 @@
+package com.weaponanimationreplacer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * An immutable view of the transmog sets, for the client thread.
+ *
+ * The side panel's edits are made to the plugin's transmog sets in place, on the client thread, which publishes a new one
+ * of these after each change. Readers grab the current snapshot once and get a consistent view without locking.
+ * Nothing in here may be modified once it is built; sets are frozen copies (see {@link TransmogSet#frozenCopy()}).
+ */
+public final class TransmogConfigSnapshot
+{
+	static final TransmogConfigSnapshot EMPTY = new TransmogConfigSnapshot(0, Collections.emptyList());
+
+	/** Increases with each published snapshot. */
+	@Getter
+	private final long version;
+	@Getter
+	private final List<TransmogSet> transmogSets;
+	/** The swaps of enabled sets, in priority order. */
+	@Getter
+	private final List<Swap> enabledSwaps;
+
+	private TransmogConfigSnapshot(long version, List<TransmogSet> transmogSets)
+	{
+		this.version = version;
+		this.transmogSets = Collections.unmodifiableList(transmogSets);
+
+		List<Swap> enabledSwaps = new ArrayList<>();
+		for (TransmogSet transmogSet : transmogSets)
+		{
+			if (transmogSet.isEnabled())
+			{
+				enabledSwaps.addAll(transmogSet.getSwaps());
+			}
+		}
+		this.enabledSwaps = Collections.unmodifiableList(enabledSwaps);
+	}
+
+	/**
+	 * Must be called on the client thread, which is the only thread that edits the transmog sets. Sets that haven't
+	 * changed since the last snapshot are not copied again.
+	 */
+	static TransmogConfigSnapshot of(long version, List<TransmogSet> transmogSets)
+	{
+		List<TransmogSet> frozen = new ArrayList<>(transmogSets.size());
+		for (TransmogSet transmogSet : transmogSets)
+		{
+			frozen.add(transmogSet.frozenCopy());
+		}
+		return new TransmogConfigSnapshot(version, frozen);
+	}
+}
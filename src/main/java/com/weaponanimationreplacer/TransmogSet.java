@@ -22,6 +22,13 @@ public class TransmogSet
 	@Getter
 	private final List<Swap> swaps = new ArrayList<>();
 
+	/** The config key suffix this set is stored under. null until it is first saved. */
+	transient String shardId = null;
+	/** Set when this set has changes that haven't been handed to the writer yet. */
+	transient volatile boolean dirty = false;
+	/** A copy of this set as of the last change, shared by config snapshots and persistence. null when out of date. */
+	private transient volatile TransmogSet frozen = null;
+
 	// needed for gson to not skip my defaults.
 	public TransmogSet() {
 
@@ -36,6 +43,57 @@ public class TransmogSet
 		return new TransmogSet(Collections.singletonList(new Swap()));
 	}
 
+	/**
+	 * Deep copy, so that the copy can be read on another thread while this one keeps being edited.
+	 */
+	public TransmogSet copy()
+	{
+		TransmogSet copy = new TransmogSet();
+		copy.name = name;
+		copy.enabled = enabled;
+		copy.minimized = minimized;
+		for (Swap swap : swaps)
+		{
+			copy.swaps.add(swap.copy());
+		}
+		return copy;
+	}
+
+	/**
+	 * @return a copy of this set which must never be modified. It is reused until {@link #invalidateFrozenCopy()}.
+	 */
+	TransmogSet frozenCopy()
+	{
+		TransmogSet copy = frozen;
+		if (copy == null)
+		{
+			copy = copy();
+			copy.shardId = shardId;
+			frozen = copy;
+		}
+		return copy;
+	}
+
+	/**
+	 * @return an editable copy of a frozen copy. The frozen copy is reused as the new set's frozen copy, since they match,
+	 * and the new set is saved under the same shard as the set that was frozen.
+	 */
+	static TransmogSet thaw(TransmogSet frozen)
+	{
+		TransmogSet copy = frozen.copy();
+		copy.shardId = frozen.shardId;
+		copy.frozen = frozen;
+		return copy;
+	}
+
+	/**
+	 * Call after editing this set, so that the next snapshot sees the change.
+	 */
+	void invalidateFrozenCopy()
+	{
+		frozen = null;
+	}
+
 	public void addNewSwap()
 	{
 		swaps.add(new Swap());
@@ -41,14 +41,13 @@ import static com.weaponanimationreplacer.WeaponAnimationReplacerPlugin.SearchTy
 import static com.weaponanimationreplacer.WeaponAnimationReplacerPlugin.SearchType.SPELL_L;
 import static com.weaponanimationreplacer.WeaponAnimationReplacerPlugin.SearchType.SPELL_R;
 import static com.weaponanimationreplacer.WeaponAnimationReplacerPlugin.SearchType.TRIGGER_ITEM;
-import java.awt.AlphaComposite;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
-import java.awt.Graphics2D;
+import java.awt.Graphics;
 import java.awt.MouseInfo;
 import java.awt.Point;
 import java.awt.event.ActionListener;
@@ -64,10 +63,16 @@ import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.DefaultListCellRenderer;
@@ -84,7 +89,11 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
 import javax.swing.SpinnerModel;
 import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingUtilities;
@@ -92,9 +101,12 @@ import javax.swing.border.Border;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.ChangeListener;
+import javax.swing.table.AbstractTableModel;
+import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.api.ItemID;
+import net.runelite.api.Actor;
+import net.runelite.api.Player;
 import net.runelite.api.Projectile;
 import net.runelite.api.events.ClientTick;
 import net.runelite.api.events.ProjectileMoved;
@@ -105,7 +117,6 @@ import net.runelite.client.ui.FontManager;
 import net.runelite.client.ui.components.ColorJButton;
 import net.runelite.client.ui.components.FlatTextField;
 import net.runelite.client.ui.components.colorpicker.RuneliteColorPicker;
-import net.runelite.client.util.AsyncBufferedImage;
 import net.runelite.client.util.ColorUtil;
 import net.runelite.client.util.ImageUtil;
 
@@ -138,8 +149,15 @@ class TransmogSetPanel extends JPanel
 	private static final ImageIcon VISIBLE_ICON;
 	private static final ImageIcon INVISIBLE_ICON;
 
+	// Shared by every row's combo boxes. The animation set list is in AnimationSet.comboBoxItems, since it can be reloaded.
+	private static final AnimationType[] ANIMATION_TYPE_ITEMS = AnimationType.comboBoxOrder.toArray(new AnimationType[0]);
+	private static final GraphicEffect.Type[] GRAPHIC_EFFECT_TYPE_ITEMS = GraphicEffect.Type.values();
+	private static final ListCellRenderer<Object> ANIMATION_TYPE_RENDERER = new NameRenderer<>(AnimationType.class, AnimationType::getComboBoxName);
+	private static final ListCellRenderer<Object> ANIMATION_SET_RENDERER = new NameRenderer<>(AnimationSet.class, AnimationSet::getComboBoxName);
+	private static final ListCellRenderer<Object> GRAPHIC_EFFECT_TYPE_RENDERER = new NameRenderer<>(GraphicEffect.Type.class, GraphicEffect.Type::name);
+
 	private final WeaponAnimationReplacerPlugin plugin;
-	private final int index;
+	private int index;
 	private final TransmogSet transmogSet;
 
 	private final FlatTextField nameInput = new FlatTextField();
@@ -190,7 +208,31 @@ class TransmogSetPanel extends JPanel
 		setBackground(ColorScheme.DARKER_GRAY_COLOR);
 
 		add(createNamePanel(), BorderLayout.NORTH);
-		if (!transmogSet.isMinimized()) add(createBottomPanel(), BorderLayout.CENTER);
+		// The body is built when it first scrolls into view, so opening the panel with lots of sets only pays for
+		// the ones that can be seen.
+		if (!transmogSet.isMinimized()) add(createBodyPlaceholder(), BorderLayout.CENTER);
+	}
+
+	private JPanel createBodyPlaceholder() {
+		JPanel placeholder = new JPanel() {
+			private boolean requested = false;
+
+			@Override
+			protected void paintComponent(Graphics g)
+			{
+				super.paintComponent(g);
+				// Only called when some of this is actually on screen.
+				if (!requested) {
+					requested = true;
+					SwingUtilities.invokeLater(TransmogSetPanel.this::rebuild);
+				}
+			}
+		};
+		placeholder.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		// Roughly the height the swaps will take up, so that the scrollbar doesn't jump around as bodies get built.
+		placeholder.setPreferredSize(new Dimension(0, 16 + 90 * Math.max(1, transmogSet.getSwaps().size())));
+		bodyPlaceholder = placeholder;
+		return placeholder;
 	}
 
 	private JPanel createBottomPanel() {
@@ -199,10 +241,6 @@ class TransmogSetPanel extends JPanel
 		bottomContainer.setBorder(new EmptyBorder(8, 0, 8, 0));
 		bottomContainer.setBackground(ColorScheme.DARKER_GRAY_COLOR);
 
-		for (int i = 0; i < transmogSet.getSwaps().size(); i++)
-		{
-			bottomContainer.add(createSwapPanel(transmogSet.getSwaps().get(i), i, transmogSet.getSwaps().size()));
-		}
 		JButton addSwapButton = new JButton("add swap");
 		addSwapButton.addActionListener(e -> addNewSwap(transmogSet));
 
@@ -212,6 +250,8 @@ class TransmogSetPanel extends JPanel
 		bottomContainer.add(p);
 
 		bottomPanel = bottomContainer;
+		swapRows.clear();
+		reconcileSwapRows();
 		return bottomContainer;
 	}
 
@@ -314,27 +354,27 @@ class TransmogSetPanel extends JPanel
 
 	private Component createItemRestrictionButton(Swap swap, int initialItemId)
 	{
-		return createItemSelectionButton(initialItemId, () -> swap.removeTriggerItem(initialItemId), (result, plugin) -> swap.addTriggerItem(result.itemId, result.slot, plugin), TRIGGER_ITEM, "Any", null, null);
+		return createItemSelectionButton(swap, initialItemId, () -> swap.removeTriggerItem(initialItemId), (result, plugin) -> swap.addTriggerItem(result.itemId, result.slot, plugin), TRIGGER_ITEM, "Any", null, null);
 	}
 
 	private Component createModelSwapButton(Swap swap, int initialItemId)
 	{
 		int slotOverride = swap.getSlotOverride(initialItemId);
 		String overlayString = slotOverride != -1 ? KitType.values()[slotOverride].name() : null;
-		return createItemSelectionButton(initialItemId, () -> swap.removeModelSwap(initialItemId), (result, plugin) -> swap.addModelSwap(result.itemId, plugin, result.slot), MODEL_SWAP, "None", overlayString, swap);
+		return createItemSelectionButton(swap, initialItemId, () -> swap.removeModelSwap(initialItemId), (result, plugin) -> swap.addModelSwap(result.itemId, plugin, result.slot), MODEL_SWAP, "None", overlayString, swap);
 	}
 
-	private Component createSpellSwapLButton(ProjectileSwap swap)
+	private Component createSpellSwapLButton(Swap parent, ProjectileSwap swap)
 	{
-		return createItemSelectionButton(swap.toReplace, () -> swap.toReplace = -1, (result, plugin) -> swap.toReplace = result.itemId, SPELL_L, "None", null, null);
+		return createItemSelectionButton(parent, swap.toReplace, () -> swap.toReplace = -1, (result, plugin) -> swap.toReplace = result.itemId, SPELL_L, "None", null, null);
 	}
 
-	private Component createSpellSwapRButton(ProjectileSwap swap)
+	private Component createSpellSwapRButton(Swap parent, ProjectileSwap swap)
 	{
-		return createItemSelectionButton(swap.toReplaceWith, () -> swap.toReplaceWith = -1, (result, plugin) -> {swap.toReplaceWith = result.itemId; swap.toReplaceWithCustom = null;}, SPELL_R, "None", swap.toReplaceWithCustom != null ? "c" : null, null);
+		return createItemSelectionButton(parent, swap.toReplaceWith, () -> swap.toReplaceWith = -1, (result, plugin) -> {swap.toReplaceWith = result.itemId; swap.toReplaceWithCustom = null;}, SPELL_R, "None", swap.toReplaceWithCustom != null ? "c" : null, null);
 	}
 
-	private ItemSelectionButton createItemSelectionButton(int initialId, Runnable onRemove, BiConsumer<SelectionResult, WeaponAnimationReplacerPlugin> onAdd, SearchType type, String whenEmpty, String overlayString, Swap swap)
+	private ItemSelectionButton createItemSelectionButton(Swap parent, int initialId, Runnable onRemove, BiConsumer<SelectionResult, WeaponAnimationReplacerPlugin> onAdd, SearchType type, String whenEmpty, String overlayString, Swap swap)
 	{
 		ItemSelectionButton weaponIdInput = new ItemSelectionButton();
 		weaponIdInput.nameWhenEmpty = whenEmpty;
@@ -343,16 +383,16 @@ class TransmogSetPanel extends JPanel
 		Runnable deleteItem = () ->
 			plugin.clientThread.invoke(() -> {
 				onRemove.run();
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(parent));
 			}
 		);
 		Runnable addItem = () -> {
 			plugin.doItemSearch(
 				result -> {
 					onAdd.accept(result, plugin);
-					plugin.handleTransmogSetChange();
-					SwingUtilities.invokeLater(this::rebuild);
+					plugin.handleTransmogSetChange(transmogSet);
+					SwingUtilities.invokeLater(() -> rebuildSwap(parent));
 				},
 				deleteItem,
 				type,
@@ -422,45 +462,56 @@ class TransmogSetPanel extends JPanel
 
 	private void addNewSwap(TransmogSet transmogSet)
 	{
-		transmogSet.addNewSwap();
-		SwingUtilities.invokeLater(this::rebuild);
+		plugin.clientThread.invokeLater(() -> {
+			transmogSet.addNewSwap();
+			plugin.handleTransmogSetChange(transmogSet);
+			SwingUtilities.invokeLater(this::rebuild);
+		});
 	}
 
 	private void removeSwap(TransmogSet transmogSet, Swap swap)
 	{
-		transmogSet.removeSwap(swap);
-		plugin.clientThread.invokeLater(plugin::handleTransmogSetChange);
-		SwingUtilities.invokeLater(this::rebuild);
+		plugin.clientThread.invokeLater(() -> {
+			transmogSet.removeSwap(swap);
+			plugin.handleTransmogSetChange(transmogSet);
+			SwingUtilities.invokeLater(this::rebuild);
+		});
 	}
 
 	private void moveSwap(TransmogSet transmogSet, Swap swap, int i)
 	{
-		transmogSet.moveSwap(swap, i);
-		plugin.clientThread.invokeLater(plugin::handleTransmogSetChange);
-		SwingUtilities.invokeLater(this::rebuild);
+		plugin.clientThread.invokeLater(() -> {
+			transmogSet.moveSwap(swap, i);
+			plugin.handleTransmogSetChange(transmogSet);
+			SwingUtilities.invokeLater(this::rebuild);
+		});
 	}
 
 	private void addAnimationReplacement(Swap swap)
 	{
 		plugin.clientThread.invokeLater(() -> {
 			swap.addNewAnimationReplacement();
-			plugin.handleTransmogSetChange();
-			SwingUtilities.invokeLater(this::rebuild);
+			plugin.handleTransmogSetChange(transmogSet);
+			SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 		});
 	}
 
 	private void addProjectileSwap(Swap swap)
 	{
-		swap.addNewProjectileSwap();
-		plugin.clientThread.invokeLater(plugin::handleTransmogSetChange);
-		SwingUtilities.invokeLater(this::rebuild);
+		plugin.clientThread.invokeLater(() -> {
+			swap.addNewProjectileSwap();
+			plugin.handleTransmogSetChange(transmogSet);
+			SwingUtilities.invokeLater(() -> rebuildSwap(swap));
+		});
 	}
 
 	private void addGraphicEffect(Swap swap)
 	{
-		swap.addNewGraphicEffect();
-		plugin.clientThread.invokeLater(plugin::handleTransmogSetChange);
-		SwingUtilities.invokeLater(this::rebuild);
+		plugin.clientThread.invokeLater(() -> {
+			swap.addNewGraphicEffect();
+			plugin.handleTransmogSetChange(transmogSet);
+			SwingUtilities.invokeLater(() -> rebuildSwap(swap));
+		});
 	}
 
 	// TODO threading, memory consistency? on which threads am I doing what. I want swaps to be modified on the client thread only, I think.
@@ -469,8 +520,8 @@ class TransmogSetPanel extends JPanel
 		plugin.doItemSearch(
 			result -> {
 				swap.addModelSwap(result.itemId, plugin, result.slot);
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			},
 			() -> {},
 			MODEL_SWAP,
@@ -483,8 +534,8 @@ class TransmogSetPanel extends JPanel
 		plugin.doItemSearch(
 			result -> {
 				swap.addTriggerItem(result.itemId, plugin);
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			},
 			TRIGGER_ITEM
 		);
@@ -497,6 +548,23 @@ class TransmogSetPanel extends JPanel
 		menu.add(menuItem);
 	}
 
+	private static class NameRenderer<T> extends DefaultListCellRenderer {
+		private final Class<T> type;
+		private final Function<T, String> getName;
+
+		NameRenderer(Class<T> type, Function<T, String> getName) {
+			this.type = type;
+			this.getName = getName;
+		}
+
+		@Override
+		public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+			Component rendererComponent = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+			setText(type.isInstance(value) ? getName.apply(type.cast(value)) : "<choose>");
+			return rendererComponent;
+		}
+	}
+
 	public static class IconLabelButton extends JLabel {
 		private final Icon icon;
 		private final Icon iconMouseovered;
@@ -531,16 +599,121 @@ class TransmogSetPanel extends JPanel
 		}
 	}
 
-	private Component bottomPanel;
+	private JPanel bottomPanel;
+	private JPanel bodyPlaceholder;
+
+	/** The rows of the bottom panel, by swap identity, so that a change to one swap doesn't recreate the others. */
+	private final Map<Swap, SwapRow> swapRows = new IdentityHashMap<>();
+
+	private static class SwapRow
+	{
+		Component component;
+		// The options menu depends on these.
+		boolean first;
+		boolean last;
+	}
+
+	void setIndex(int index) {
+		this.index = index;
+	}
 
-	private void rebuild() {
-		if (bottomPanel != null)
+	/**
+	 * Updates the panel to match the transmog set's swaps, reusing the rows of swaps that are still there.
+	 */
+	void rebuild() {
+		if (bodyPlaceholder != null)
+		{
+			remove(bodyPlaceholder);
+			bodyPlaceholder = null;
+		}
+
+		if (transmogSet.isMinimized())
+		{
+			// Release the body, it is rebuilt if the set is expanded again.
+			if (bottomPanel != null)
+			{
+				remove(bottomPanel);
+				bottomPanel = null;
+				swapRows.clear();
+			}
+		}
+		else if (bottomPanel == null)
+		{
+			add(createBottomPanel(), BorderLayout.CENTER);
+		}
+		else
 		{
-			remove(bottomPanel);
-			bottomPanel = null;
+			reconcileSwapRows();
 		}
-		if (!transmogSet.isMinimized()) add(createBottomPanel(), BorderLayout.CENTER);
 		pluginPanel.revalidate();
+		pluginPanel.repaint();
+	}
+
+	private void reconcileSwapRows() {
+		List<Swap> swaps = transmogSet.getSwaps();
+		Map<Swap, SwapRow> oldRows = new IdentityHashMap<>(swapRows);
+		swapRows.clear();
+		List<SwapRow> rows = new ArrayList<>(swaps.size());
+		for (int i = 0; i < swaps.size(); i++)
+		{
+			Swap swap = swaps.get(i);
+			boolean first = i == 0;
+			boolean last = i == swaps.size() - 1;
+			SwapRow row = oldRows.remove(swap);
+			if (row == null)
+			{
+				row = new SwapRow();
+			}
+			else if (row.first != first || row.last != last)
+			{
+				bottomPanel.remove(row.component);
+				row.component = null;
+			}
+			if (row.component == null)
+			{
+				row.component = createSwapPanel(swap, i, swaps.size());
+				row.first = first;
+				row.last = last;
+			}
+			swapRows.put(swap, row);
+			rows.add(row);
+		}
+		for (SwapRow removed : oldRows.values())
+		{
+			bottomPanel.remove(removed.component);
+		}
+
+		// Everything before i is already in place, so this only moves components that are out of order. The add swap
+		// button stays last.
+		for (int i = 0; i < rows.size(); i++)
+		{
+			Component component = rows.get(i).component;
+			if (i >= bottomPanel.getComponentCount() || bottomPanel.getComponent(i) != component)
+			{
+				bottomPanel.add(component, i);
+			}
+		}
+	}
+
+	/**
+	 * Recreates the row for a swap whose contents changed.
+	 */
+	void rebuildSwap(Swap swap) {
+		SwapRow row = swapRows.get(swap);
+		if (row == null) return; // not in this set, or minimized.
+
+		int swapIndex = transmogSet.getSwaps().indexOf(swap);
+		int componentIndex = bottomPanel.getComponentZOrder(row.component);
+		if (swapIndex == -1 || componentIndex == -1)
+		{
+			rebuild();
+			return;
+		}
+		bottomPanel.remove(componentIndex);
+		row.component = createSwapPanel(swap, swapIndex, transmogSet.getSwaps().size());
+		bottomPanel.add(row.component, componentIndex);
+		pluginPanel.revalidate();
+		pluginPanel.repaint();
 	}
 
 	public class EntryPanel extends JPanel {
@@ -570,7 +743,8 @@ class TransmogSetPanel extends JPanel
 			if (minimize) {
 				JLabel xButton = makeButton(minimized ? " + " : " - ", () -> {
 					plugin.clientThread.invokeLater(() -> {
-					    transmogSet.setMinimized(!minimized);;
+					    transmogSet.setMinimized(!minimized);
+						plugin.saveTransmogSets(transmogSet);
 						SwingUtilities.invokeLater(TransmogSetPanel.this::rebuild);
 					});
 				});
@@ -647,15 +821,8 @@ class TransmogSetPanel extends JPanel
 		row1.setBackground(ColorScheme.DARKER_GRAY_COLOR);
 		row1.add(new JLabel("Replace "));
 
-		JComboBox<AnimationType> animToReplace = new JComboBox<>(AnimationType.comboBoxOrder.toArray(new AnimationType[] {}));
-		animToReplace.setRenderer(new DefaultListCellRenderer() {
-			@Override
-			public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
-				Component rendererComponent = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-				setText(value == null ? "<choose>" : ((AnimationType) value).getComboBoxName());
-				return rendererComponent;
-			}
-		});
+		JComboBox<AnimationType> animToReplace = new JComboBox<>(new SharedComboBoxModel<>(ANIMATION_TYPE_ITEMS));
+		animToReplace.setRenderer(ANIMATION_TYPE_RENDERER);
 		animToReplace.setSelectedItem(animationReplacement.animationtypeToReplace);
 		animToReplace.setPrototypeDisplayValue(AnimationType.RUN);
 		animToReplace.addActionListener((e) -> {
@@ -665,8 +832,8 @@ class TransmogSetPanel extends JPanel
 				if (!ATTACK.appliesTo(animationReplacement.animationtypeToReplace)) {
 					animationReplacement.animationtypeReplacement = null;
 				}
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			});
 		});
 		row1.add(animToReplace);
@@ -676,15 +843,8 @@ class TransmogSetPanel extends JPanel
 		row2.setLayout(new BoxLayout(row2, BoxLayout.X_AXIS));
 		row2.setBackground(ColorScheme.DARKER_GRAY_COLOR);
 		row2.add(new JLabel("with"));
-		JComboBox<AnimationSet> animationSetToUse = new JComboBox<>(AnimationSet.animationSets.toArray(new AnimationSet[]{}));
-		animationSetToUse.setRenderer(new DefaultListCellRenderer() {
-			@Override
-			public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
-				Component rendererComponent = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-				setText(value == null ? "<choose>" : ((AnimationSet) value).getComboBoxName());
-				return rendererComponent;
-			}
-		});
+		JComboBox<AnimationSet> animationSetToUse = new JComboBox<>(new SharedComboBoxModel<>(AnimationSet.comboBoxItems));
+		animationSetToUse.setRenderer(ANIMATION_SET_RENDERER);
 		animationSetToUse.setSelectedItem(animationReplacement.animationSet);
 		animationSetToUse.addActionListener((e) -> {
 			plugin.clientThread.invokeLater(() -> {
@@ -700,8 +860,8 @@ class TransmogSetPanel extends JPanel
 						animationReplacement.animationtypeReplacement = actions.get(0);
 					}
 				}
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			});
 		});
 		row2.add(animationSetToUse);
@@ -730,12 +890,19 @@ class TransmogSetPanel extends JPanel
 			});
 			attackToUse.setSelectedItem(animationReplacement.animationtypeReplacement);
 			// Update the rule to reflect the dropdown. This is relevant if the list of items in the dropdown does not contain the original replacement.
-			animationReplacement.animationtypeReplacement = ((AnimationType) attackToUse.getSelectedItem());
+			AnimationType shownAttack = (AnimationType) attackToUse.getSelectedItem();
+			if (shownAttack != animationReplacement.animationtypeReplacement)
+			{
+				plugin.clientThread.invokeLater(() -> {
+					animationReplacement.animationtypeReplacement = shownAttack;
+					plugin.handleTransmogSetChange(transmogSet);
+				});
+			}
 			attackToUse.addActionListener((e) -> {
 				plugin.clientThread.invokeLater(() -> {
 					animationReplacement.animationtypeReplacement = ((AnimationType) attackToUse.getSelectedItem());
 					animationReplacement.auto = -1;
-					plugin.handleTransmogSetChange();
+					plugin.handleTransmogSetChange(transmogSet);
 
 					plugin.demoAnimation(animationReplacement.animationSet.getAnimation(animationReplacement.animationtypeReplacement));
 				});
@@ -746,17 +913,19 @@ class TransmogSetPanel extends JPanel
 		}
 
 		return new EntryPanel(false, true, true, i == size - 1, animationReplacementPanel, () -> {
-			swap.animationReplacements.remove(i);
-			plugin.clientThread.invoke(plugin::handleTransmogSetChange);
-			SwingUtilities.invokeLater(this::rebuild);
+			plugin.clientThread.invoke(() -> {
+				swap.animationReplacements.remove(i);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
+			});
 		}, () -> {
 			plugin.clientThread.invokeLater(() -> {
 				swap.addNewAnimationReplacement();
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			});
 		}, (enabled) -> {
-			plugin.clientThread.invoke(plugin::handleTransmogSetChange);
+			plugin.clientThread.invoke(() -> plugin.handleTransmogSetChange(transmogSet));
 		});
 	}
 
@@ -775,9 +944,9 @@ class TransmogSetPanel extends JPanel
 
 		JPanel projectileSwapPanel = getRestrictionAndModelSwapPanel();
 		projectileSwapPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-		projectileSwapPanel.add(createSpellSwapLButton(projectileSwap));
+		projectileSwapPanel.add(createSpellSwapLButton(swap, projectileSwap));
 		projectileSwapPanel.add(new JLabel("->"));
-		projectileSwapPanel.add(createSpellSwapRButton(projectileSwap));
+		projectileSwapPanel.add(createSpellSwapRButton(swap, projectileSwap));
 		projectileSwapPanel.add(createSpellEditPanel(projectileSwap, swap, i));
 		row1.add(projectileSwapPanel);
 		animationReplacementPanel.add(row1);
@@ -787,17 +956,19 @@ class TransmogSetPanel extends JPanel
 		}
 
 		return new EntryPanel(false, true, true, i == size - 1, animationReplacementPanel, () -> {
-			swap.getProjectileSwaps().remove(i);
-			plugin.clientThread.invoke(plugin::handleTransmogSetChange);
-			SwingUtilities.invokeLater(this::rebuild);
+			plugin.clientThread.invoke(() -> {
+				swap.getProjectileSwaps().remove(i);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
+			});
 		}, () -> {
 			plugin.clientThread.invokeLater(() -> {
 				swap.addNewProjectileSwap();
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			});
 		}, (enabled) -> {
-			plugin.clientThread.invoke(plugin::handleTransmogSetChange);
+			plugin.clientThread.invoke(() -> plugin.handleTransmogSetChange(transmogSet));
 		});
 	}
 
@@ -807,68 +978,24 @@ class TransmogSetPanel extends JPanel
 		panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
 		ProjectileCast defaultValue = projectileSwap.getToReplaceWith() != null ? projectileSwap.getToReplaceWith() : ProjectileCast.p().build();
 
-		createProjectileEditPanelRow("anim id", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setCastAnimation((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.castAnimation, panel);
-		createProjectileEditPanelRow("cast gfx", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setCastGfx((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.castGfx, panel);
-		createProjectileEditPanelRow("hit gfx", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setHitGfx((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.client.getLocalPlayer().createSpotAnim("demo".hashCode(), projectileSwap.toReplaceWithCustom.hitGfx, 0, 0);
-		}, defaultValue.hitGfx, panel);
-		createProjectileEditPanelRow("hit gfx height", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setHitGfxHeight((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.client.getLocalPlayer().createSpotAnim("demo".hashCode(), projectileSwap.toReplaceWithCustom.hitGfxHeight, 0, 0);
-		}, defaultValue.hitGfxHeight, panel);
-		createProjectileEditPanelRow("projectile id", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setProjectileId((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.projectileId, panel);
-		createProjectileEditPanelRow("arc", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setSlope((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.slope, panel, -64, 64);
-		createProjectileEditPanelRow("delay", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setStartMovement((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.startMovement, panel);
-		createProjectileEditPanelRow("start offset", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setStartHeight((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.startHeight, panel);
-		createProjectileEditPanelRow("start height", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setHeight((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.height, panel, Integer.MIN_VALUE, Integer.MAX_VALUE);
-		createProjectileEditPanelRow("end height", ce -> {
-			projectileSwap.createCustomIfNull();
-			projectileSwap.toReplaceWithCustom.setEndHeight((int) ((JSpinner) ce.getSource()).getValue());
-			plugin.saveTransmogSets();
-			plugin.demoCast(projectileSwap.getToReplaceWith());
-		}, defaultValue.endHeight, panel);
+		Consumer<ProjectileSwap> demoCast = swap -> plugin.demoCast(swap.getToReplaceWith());
+		Consumer<ProjectileSwap> demoHitGfx = swap -> {
+			Player player = plugin.client.getLocalPlayer();
+			if (player == null) return;
+			player.createSpotAnim("demo".hashCode(), swap.toReplaceWithCustom.hitGfx, swap.toReplaceWithCustom.hitGfxHeight, 0);
+		};
+		createProjectileEditPanelRow("anim id", projectileSwap, ProjectileCast::setCastAnimation, demoCast, defaultValue.castAnimation, panel);
+		createProjectileEditPanelRow("cast gfx", projectileSwap, ProjectileCast::setCastGfx, demoCast, defaultValue.castGfx, panel);
+		createProjectileEditPanelRow("hit gfx", projectileSwap, ProjectileCast::setHitGfx, demoHitGfx, defaultValue.hitGfx, panel);
+		createProjectileEditPanelRow("hit gfx height", projectileSwap, ProjectileCast::setHitGfxHeight, demoHitGfx, defaultValue.hitGfxHeight, panel);
+		createProjectileEditPanelRow("projectile id", projectileSwap, ProjectileCast::setProjectileId, demoCast, defaultValue.projectileId, panel);
+		createProjectileEditPanelRow("arc", projectileSwap, ProjectileCast::setSlope, demoCast, defaultValue.slope, panel, -64, 64);
+		createProjectileEditPanelRow("delay", projectileSwap, ProjectileCast::setStartMovement, demoCast, defaultValue.startMovement, panel);
+		createProjectileEditPanelRow("start offset", projectileSwap, ProjectileCast::setStartHeight, demoCast, defaultValue.startHeight, panel);
+		createProjectileEditPanelRow("start height", projectileSwap, ProjectileCast::setHeight, demoCast, defaultValue.height, panel, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		createProjectileEditPanelRow("end height", projectileSwap, ProjectileCast::setEndHeight, demoCast, defaultValue.endHeight, panel);
 		JButton demo = new JButton("demo");
-		demo.addActionListener(al -> plugin.demoCast(projectileSwap.getToReplaceWith()));
+		demo.addActionListener(al -> plugin.clientThread.invokeLater(() -> plugin.demoCast(projectileSwap.getToReplaceWith())));
 		panel.add(demo);
 		JButton projectileIdsButton = new JButton("projectile ids");
 		projectileIdsButton.addActionListener(al -> {
@@ -879,11 +1006,40 @@ class TransmogSetPanel extends JPanel
 		return panel;
 	}
 
+	/**
+	 * Lists the projectiles that have been seen, for finding the values to use in a custom projectile swap.
+	 */
 	private class ProjectileIdsFrame extends JFrame {
-		private JPanel panel;
+		/** Projectiles in flight. When it is full the oldest one is dropped, which only means it isn't counted. */
+		private static final int LIVE_CAPACITY = 512;
+		// Layout of one projectile in live.
+		private static final int END_CYCLE = 0;
+		private static final int PROJECTILE_ID = 1;
+		private static final int HIT_GFX = 2;
+		private static final int HIT_GFX_HEIGHT = 3;
+		private static final int START_MOVEMENT = 4;
+		private static final int START_HEIGHT = 5;
+		private static final int HEIGHT = 6;
+		private static final int END_HEIGHT = 7;
+		private static final int SLOPE = 8;
+		private static final int FIELDS = 9;
+		private static final int FINISHED = Integer.MIN_VALUE;
+
+		// Client thread only.
+		private final int[] live = new int[LIVE_CAPACITY * FIELDS];
+		private int liveStart = 0;
+		private int liveCount = 0;
+		private final Map<ProjectileKey, Integer> counts = new HashMap<>();
+
+		private volatile boolean paused = false;
+
+		// EDT only.
+		private final ProjectileTableModel model = new ProjectileTableModel();
+		private final JTable table = new JTable(model);
+		private final JLabel status = new JLabel();
 
 		public ProjectileIdsFrame() {
-			super("Projectile ids, most recently seen last");
+			super("Projectile ids");
 			setSize(500, 500);
 			setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 			addWindowListener(new WindowAdapter()
@@ -891,23 +1047,72 @@ class TransmogSetPanel extends JPanel
 				@Override
 				public void windowClosing(WindowEvent e)
 				{
-					plugin.eventBus.unregister(this);
+					plugin.eventBus.unregister(ProjectileIdsFrame.this);
 				}
 			});
-			panel = new JPanel();
-			panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+
+			JPanel top = new JPanel();
+			top.setLayout(new BoxLayout(top, BoxLayout.X_AXIS));
+			JCheckBox pause = new JCheckBox("pause", paused);
+			pause.addActionListener(al -> paused = pause.isSelected());
+			top.add(pause);
+			JButton demo = new JButton("demo");
+			demo.addActionListener(al -> {
+				ProjectileKey selected = getSelected();
+				if (selected == null) return;
+				ProjectileCast pc = selected.toProjectileCast();
+				plugin.clientThread.invokeLater(() -> plugin.demoCast(pc));
+			});
+			top.add(demo);
+			JButton use = new JButton("use");
+			use.addActionListener(al -> use());
+			top.add(use);
+			top.add(status);
+
+			table.setAutoCreateRowSorter(true);
+			table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+			add(top, BorderLayout.NORTH);
+			add(new JScrollPane(table), BorderLayout.CENTER);
 			plugin.eventBus.register(this);
-			add(panel);
 		}
 
-		@Value
-		private class PCwI {
-			ProjectileCast pc;
-			int i;
+		private ProjectileKey getSelected() {
+			int row = table.getSelectedRow();
+			if (row == -1) {
+				status.setText("select a projectile first");
+				return null;
+			}
+			status.setText(null);
+			return model.rows.get(table.convertRowIndexToModel(row)).key;
 		}
 
-		private final List<PCwI> liveProjectiles = new ArrayList<>();
-		private final List<PCwI> finishedProjectiles = new ArrayList<>();
+		private void use() {
+			ProjectileKey projectile = getSelected();
+			if (projectile == null) return;
+			if (pluginPanel.currentlyEditingThisSwap == null || pluginPanel.currentlyEditingThisProjectileSwapIndex == -1)
+			{
+				status.setText("not editing a projectile swap");
+				return;
+			}
+			Swap swap = pluginPanel.currentlyEditingThisSwap;
+			ProjectileSwap projectileSwap = swap.getProjectileSwaps().get(pluginPanel.currentlyEditingThisProjectileSwapIndex);
+			plugin.clientThread.invokeLater(() -> {
+				projectileSwap.createCustomIfNull();
+				projectileSwap.toReplaceWithCustom.projectileId = projectile.projectileId;
+				if (projectile.hitGfx != -1) projectileSwap.toReplaceWithCustom.hitGfx = projectile.hitGfx;
+				projectileSwap.toReplaceWithCustom.startMovement = projectile.startMovement;
+				projectileSwap.toReplaceWithCustom.startHeight = projectile.startHeight;
+				projectileSwap.toReplaceWithCustom.endHeight = projectile.endHeight;
+				projectileSwap.toReplaceWithCustom.slope = projectile.slope;
+				for (TransmogSet transmogSet : plugin.getTransmogSets())
+				{
+					// The swap being edited can be in any set.
+					if (transmogSet.getSwaps().stream().anyMatch(other -> other == swap)) plugin.handleTransmogSetChange(transmogSet);
+				}
+				SwingUtilities.invokeLater(() -> pluginPanel.rebuildSwap(swap));
+			});
+		}
 
 		@Subscribe
 		public void onProjectileMoved(ProjectileMoved e) {
@@ -915,116 +1120,261 @@ class TransmogSetPanel extends JPanel
 			Projectile projectile = e.getProjectile();
 
 			// skip already seen projectiles.
-			if (plugin.client.getGameCycle() >= projectile.getStartCycle()) return;
-
-			liveProjectiles.add(new PCwI(new ProjectileCast(
-				-1,
-				"",
-				-1,
-				-1,
-				-1,
-				-1,
-				projectile.getId(),
-				projectile.getInteracting() != null ? projectile.getInteracting().getGraphic() : -1,
-				projectile.getInteracting() != null ? projectile.getInteracting().getGraphicHeight() : -1,
-				projectile.getStartCycle() - plugin.client.getGameCycle(),
-				projectile.getStartHeight(),
-				projectile.getHeight(), // TODO
-				projectile.getEndHeight(),
-				projectile.getSlope(),
-				true
-			), projectile.getEndCycle()));
-		}
+			int gameCycle = plugin.client.getGameCycle();
+			if (gameCycle >= projectile.getStartCycle()) return;
 
-		private boolean paused = false;
+			if (liveCount == LIVE_CAPACITY) {
+				liveStart = (liveStart + 1) % LIVE_CAPACITY;
+				liveCount--;
+			}
+			int o = ((liveStart + liveCount) % LIVE_CAPACITY) * FIELDS;
+			liveCount++;
+
+			Actor interacting = projectile.getInteracting();
+			live[o + END_CYCLE] = projectile.getEndCycle();
+			live[o + PROJECTILE_ID] = projectile.getId();
+			live[o + HIT_GFX] = interacting != null ? interacting.getGraphic() : -1;
+			live[o + HIT_GFX_HEIGHT] = interacting != null ? interacting.getGraphicHeight() : -1;
+			live[o + START_MOVEMENT] = projectile.getStartCycle() - gameCycle;
+			live[o + START_HEIGHT] = projectile.getStartHeight();
+			live[o + HEIGHT] = projectile.getHeight(); // TODO
+			live[o + END_HEIGHT] = projectile.getEndHeight();
+			live[o + SLOPE] = projectile.getSlope();
+		}
 
 		@Subscribe
 		public void onClientTick(ClientTick e) {
-			boolean redraw = false;
+			if (liveCount == 0) return;
 
-			outer:
-			for (int j = 0; j < liveProjectiles.size(); j++)
+			int gameCycle = plugin.client.getGameCycle();
+			List<Seen> seen = null;
+			for (int n = 0; n < liveCount; n++)
+			{
+				int o = ((liveStart + n) % LIVE_CAPACITY) * FIELDS;
+				int endCycle = live[o + END_CYCLE];
+				if (endCycle == FINISHED || endCycle > gameCycle) continue;
+
+				live[o + END_CYCLE] = FINISHED;
+				ProjectileKey key = new ProjectileKey(live[o + PROJECTILE_ID], live[o + HIT_GFX], live[o + HIT_GFX_HEIGHT], live[o + START_MOVEMENT], live[o + START_HEIGHT], live[o + HEIGHT], live[o + END_HEIGHT], live[o + SLOPE]);
+				int count = counts.merge(key, 1, Integer::sum);
+				if (seen == null) seen = new ArrayList<>();
+				seen.add(new Seen(key, count, gameCycle));
+			}
+			// Finished projectiles in the middle are skipped until they reach the front.
+			while (liveCount > 0 && live[liveStart * FIELDS + END_CYCLE] == FINISHED)
 			{
-				PCwI liveProjectile = liveProjectiles.get(j);
-				if (liveProjectile.i > plugin.client.getGameCycle()) continue;
-				liveProjectiles.remove(j);
-				j--;
-				finishedProjectiles.add(new PCwI(liveProjectile.pc, 0));
-				for (int i = 0; i < finishedProjectiles.size(); i++)
+				liveStart = (liveStart + 1) % LIVE_CAPACITY;
+				liveCount--;
+			}
+
+			if (seen != null)
+			{
+				List<Seen> finalSeen = seen;
+				SwingUtilities.invokeLater(() -> model.update(finalSeen));
+			}
+		}
+
+		@Value
+		private class ProjectileKey {
+			int projectileId;
+			int hitGfx;
+			int hitGfxHeight;
+			int startMovement;
+			int startHeight;
+			int height;
+			int endHeight;
+			int slope;
+
+			ProjectileCast toProjectileCast() {
+				return new ProjectileCast(-1, "", -1, -1, -1, -1, projectileId, hitGfx, hitGfxHeight, startMovement, startHeight, height, endHeight, slope, true);
+			}
+		}
+
+		@Value
+		private class Seen {
+			ProjectileKey key;
+			int count;
+			int gameCycle;
+		}
+
+		private class Row {
+			final ProjectileKey key;
+			int count;
+			int lastSeen;
+
+			Row(ProjectileKey key) {
+				this.key = key;
+			}
+		}
+
+		private class ProjectileTableModel extends AbstractTableModel {
+			private final String[] columns = {"id", "hit gfx", "hit height", "start movement", "start height", "height", "end height", "slope", "seen", "last seen"};
+			private final List<Row> rows = new ArrayList<>();
+			private final Map<ProjectileKey, Integer> rowIndexes = new HashMap<>();
+
+			void update(List<Seen> seen) {
+				for (Seen s : seen)
 				{
-					PCwI finishedProjectile = finishedProjectiles.get(i);
-					if (finishedProjectile.pc.equals(liveProjectile.pc)) {
-						PCwI remove = finishedProjectiles.remove(i);
-						finishedProjectiles.add(new PCwI(remove.pc, remove.i + 1));
-						redraw = true;
-						continue outer;
+					Integer index = rowIndexes.get(s.key);
+					Row row;
+					if (index == null)
+					{
+						index = rows.size();
+						row = new Row(s.key);
+						rows.add(row);
+						rowIndexes.put(s.key, index);
+					}
+					else
+					{
+						row = rows.get(index);
+					}
+					row.count = s.count;
+					row.lastSeen = s.gameCycle;
+					if (index == rows.size() - 1 && row.count == 1) {
+						fireTableRowsInserted(index, index);
+					} else {
+						fireTableRowsUpdated(index, index);
 					}
 				}
 			}
 
-			if (redraw)
-			{
-				SwingUtilities.invokeLater(() -> {
-					panel.removeAll();
-					JCheckBox pause = new JCheckBox("pause", paused);
-					pause.addChangeListener(ce -> {
-						paused = ((JCheckBox) ce.getSource()).isSelected();
-					});
-					panel.add(pause);
-					for (PCwI projectile : finishedProjectiles)
-					{
-						JPanel panel1 = new JPanel();
-						panel1.setLayout(new BoxLayout(panel1, BoxLayout.X_AXIS));
-						JButton demo = new JButton("demo");
-						demo.addActionListener(al -> plugin.demoCast(projectile.pc));
-						panel1.add(demo);
-						JButton use = new JButton("use");
-						use.addActionListener(al -> {
-							if (pluginPanel.currentlyEditingThisSwap == null || pluginPanel.currentlyEditingThisProjectileSwapIndex == -1)
-							{
-								panel.add(new JLabel("not editing a projectile swap"));
-								panel.revalidate();
-								panel.repaint();
-								return;
-							}
-							ProjectileSwap projectileSwap = pluginPanel.currentlyEditingThisSwap.getProjectileSwaps().get(pluginPanel.currentlyEditingThisProjectileSwapIndex);
-							projectileSwap.createCustomIfNull();
-							projectileSwap.toReplaceWithCustom.projectileId = projectile.pc.projectileId;
-							if (projectile.pc.hitGfx != -1) projectileSwap.toReplaceWithCustom.hitGfx = projectile.pc.hitGfx;
-							projectileSwap.toReplaceWithCustom.startMovement = projectile.pc.startMovement;
-							projectileSwap.toReplaceWithCustom.startHeight = projectile.pc.startHeight;
-							projectileSwap.toReplaceWithCustom.endHeight = projectile.pc.endHeight;
-							projectileSwap.toReplaceWithCustom.slope = projectile.pc.slope;
-							pluginPanel.rebuild();
-						});
-						panel1.add(use);
-						panel1.add(new JLabel("id " + projectile.pc.projectileId + " hitGfx " + projectile.pc.hitGfx + " (seen " + projectile.i + " times)"));
+			@Override
+			public int getRowCount() {
+				return rows.size();
+			}
 
-						panel.add(panel1);
-					}
-					panel.revalidate();
-					panel.repaint();
-				});
+			@Override
+			public int getColumnCount() {
+				return columns.length;
+			}
+
+			@Override
+			public String getColumnName(int column) {
+				return columns[column];
+			}
+
+			@Override
+			public Class<?> getColumnClass(int column) {
+				return Integer.class;
+			}
+
+			@Override
+			public Object getValueAt(int rowIndex, int column) {
+				Row row = rows.get(rowIndex);
+				ProjectileKey key = row.key;
+				switch (column) {
+					case 0: return key.projectileId;
+					case 1: return key.hitGfx;
+					case 2: return key.hitGfxHeight;
+					case 3: return key.startMovement;
+					case 4: return key.startHeight;
+					case 5: return key.height;
+					case 6: return key.endHeight;
+					case 7: return key.slope;
+					case 8: return row.count;
+					default: return row.lastSeen;
+				}
 			}
 		}
 	}
 
-	private void createProjectileEditPanelRow(String labelName, ChangeListener cl, int initialValue, JPanel panel)
+	private void createProjectileEditPanelRow(String labelName, ProjectileSwap projectileSwap, ObjIntConsumer<ProjectileCast> setter, Consumer<ProjectileSwap> preview, int initialValue, JPanel panel)
 	{
-		createProjectileEditPanelRow(labelName, cl, initialValue, panel, -1, Integer.MAX_VALUE);
+		createProjectileEditPanelRow(labelName, projectileSwap, setter, preview, initialValue, panel, -1, Integer.MAX_VALUE);
 	}
 
-	private void createProjectileEditPanelRow(String labelName, ChangeListener cl, int initialValue, JPanel panel, int min, int max)
+	private void createProjectileEditPanelRow(String labelName, ProjectileSwap projectileSwap, ObjIntConsumer<ProjectileCast> setter, Consumer<ProjectileSwap> preview, int initialValue, JPanel panel, int min, int max)
 	{
 		JPanel row = new JPanel();
 		row.setLayout(new BoxLayout(row, BoxLayout.X_AXIS));
 		JLabel label = new JLabel(labelName);
 		row.add(label);
-		JSpinner input = createIntSpinner(initialValue, cl, min, max);
+		ProjectileEdit edit = new ProjectileEdit(projectileSwap, setter, preview);
+		JSpinner input = createIntSpinner(initialValue, ce -> {
+			JSpinner spinner = (JSpinner) ce.getSource();
+			edit.changed((int) spinner.getValue(), isArrowHeld(spinner));
+		}, min, max);
+		for (Component component : input.getComponents())
+		{
+			if (!(component instanceof JButton)) continue;
+			component.addMouseListener(new MouseAdapter()
+			{
+				@Override
+				public void mouseReleased(MouseEvent e)
+				{
+					edit.released();
+				}
+			});
+		}
 		row.add(input);
 		panel.add(row);
 	}
 
+	/** JSpinner has no getValueIsAdjusting, holding down one of its arrows is the equivalent. */
+	private static boolean isArrowHeld(JSpinner spinner)
+	{
+		for (Component component : spinner.getComponents())
+		{
+			if (component instanceof JButton && ((JButton) component).getModel().isPressed()) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Applies a spinner's latest value to the projectile swap at most once per client tick, where the game sees it right
+	 * away, and only saves once the spinner is released, so that holding an arrow down doesn't write the config on every
+	 * step.
+	 */
+	@RequiredArgsConstructor
+	private class ProjectileEdit
+	{
+		private final ProjectileSwap projectileSwap;
+		private final ObjIntConsumer<ProjectileCast> setter;
+		private final Consumer<ProjectileSwap> preview;
+
+		private volatile int latest;
+		private final AtomicBoolean applyQueued = new AtomicBoolean();
+		private boolean unsaved = false; // EDT only.
+
+		void changed(int value, boolean adjusting)
+		{
+			latest = value;
+			if (applyQueued.compareAndSet(false, true))
+			{
+				plugin.clientThread.invokeLater(this::apply);
+			}
+			if (adjusting)
+			{
+				unsaved = true;
+			}
+			else
+			{
+				save();
+			}
+		}
+
+		void released()
+		{
+			if (unsaved) save();
+		}
+
+		private void apply()
+		{
+			applyQueued.set(false);
+			projectileSwap.createCustomIfNull();
+			setter.accept(projectileSwap.toReplaceWithCustom, latest);
+			plugin.previewTransmogSetChange(transmogSet);
+			preview.accept(projectileSwap);
+		}
+
+		private void save()
+		{
+			unsaved = false;
+			// Queued after any pending apply, so the saved value is the latest one.
+			plugin.clientThread.invokeLater(() -> plugin.saveTransmogSets(transmogSet));
+		}
+	}
+
 	// Copied from runelite's ConfigPanel class.
 	private JSpinner createIntSpinner(int value, ChangeListener onChange, int min, int max)
 	{
@@ -1052,6 +1402,7 @@ class TransmogSetPanel extends JPanel
 	{
 		JButton button = new JButton("", EDIT_ICON);
 		button.addActionListener(e -> {
+			Swap previouslyEditing = pluginPanel.currentlyEditingThisSwap;
 			if (pluginPanel.currentlyEditingThisSwap == swap && pluginPanel.currentlyEditingThisProjectileSwapIndex == index) {
 				pluginPanel.currentlyEditingThisSwap = null;
 				pluginPanel.currentlyEditingThisProjectileSwapIndex = -1;
@@ -1059,7 +1410,8 @@ class TransmogSetPanel extends JPanel
 				pluginPanel.currentlyEditingThisSwap = swap;
 				pluginPanel.currentlyEditingThisProjectileSwapIndex = index;
 			}
-			rebuild();
+			if (previouslyEditing != null && previouslyEditing != swap) pluginPanel.rebuildSwap(previouslyEditing);
+			rebuildSwap(swap);
 		});
 		return button;
 	}
@@ -1078,22 +1430,15 @@ class TransmogSetPanel extends JPanel
 		row1.setBackground(ColorScheme.DARKER_GRAY_COLOR);
 		row1.add(new JLabel("Effect: "));
 
-		JComboBox<GraphicEffect.Type> graphicEffectTypeComboBox = new JComboBox<>(GraphicEffect.Type.values());
-		graphicEffectTypeComboBox.setRenderer(new DefaultListCellRenderer() {
-			@Override
-			public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
-				Component rendererComponent = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-				setText(value == null ? "<choose>" : ((GraphicEffect.Type) value).name());
-				return rendererComponent;
-			}
-		});
+		JComboBox<GraphicEffect.Type> graphicEffectTypeComboBox = new JComboBox<>(new SharedComboBoxModel<>(GRAPHIC_EFFECT_TYPE_ITEMS));
+		graphicEffectTypeComboBox.setRenderer(GRAPHIC_EFFECT_TYPE_RENDERER);
 		graphicEffectTypeComboBox.setSelectedItem(graphicEffect.type);
 		graphicEffectTypeComboBox.setPrototypeDisplayValue(GraphicEffect.Type.SCYTHE_SWING);
 		graphicEffectTypeComboBox.addActionListener((e) -> {
 			plugin.clientThread.invokeLater(() -> {
 				graphicEffect.type = (GraphicEffect.Type) graphicEffectTypeComboBox.getSelectedItem();
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			});
 		});
 		row1.add(graphicEffectTypeComboBox);
@@ -1135,14 +1480,17 @@ class TransmogSetPanel extends JPanel
 					colorPicker.setLocation(getLocationOnScreen());
 					colorPicker.setOnColorChange(c ->
 					{
-						graphicEffect.color = c;
+						plugin.clientThread.invokeLater(() -> {
+							graphicEffect.color = c;
+							plugin.previewTransmogSetChange(transmogSet);
+						});
 						colorPickerBtn.setColor(c);
 						colorPickerBtn.setText("#" + (alphaHidden ? ColorUtil.colorToHexCode(c) : ColorUtil.colorToAlphaHexCode(c)).toUpperCase());
 					});
 					colorPicker.setOnClose(c -> plugin.clientThread.invokeLater(() -> {
 						graphicEffect.color = c;
-						plugin.handleTransmogSetChange();
-						SwingUtilities.invokeLater(TransmogSetPanel.this::rebuild);
+						plugin.handleTransmogSetChange(transmogSet);
+						SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 					}));
 					colorPicker.setVisible(true);
 				}
@@ -1152,14 +1500,16 @@ class TransmogSetPanel extends JPanel
 		}
 
 		return new EntryPanel(false, false, true, i == size - 1, animationReplacementPanel, () -> {
-			swap.getGraphicEffects().remove(i);
-			plugin.clientThread.invoke(plugin::handleTransmogSetChange);
-			SwingUtilities.invokeLater(this::rebuild);
+			plugin.clientThread.invoke(() -> {
+				swap.getGraphicEffects().remove(i);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
+			});
 		}, () -> {
 			plugin.clientThread.invokeLater(() -> {
 				swap.addNewGraphicEffect();
-				plugin.handleTransmogSetChange();
-				SwingUtilities.invokeLater(this::rebuild);
+				plugin.handleTransmogSetChange(transmogSet);
+				SwingUtilities.invokeLater(() -> rebuildSwap(swap));
 			});
 		}, (enabled) -> {
 		});
@@ -1184,55 +1534,26 @@ class TransmogSetPanel extends JPanel
 			} else if (itemId < 0) {
 				NegativeId negativeId = mapNegativeId(itemId);
 				if (negativeId.type == NegativeIdsMap.HIDE_SLOT) {
-					plugin.clientThread.invoke(() -> {
-						BufferedImage itemImage = plugin.getItemImage(HiddenSlot.values()[negativeId.id].iconIdToShow);
-						BufferedImage bankFillerImage = plugin.getItemImage(ItemID.BANK_FILLER);
-						SwingUtilities.invokeLater(() -> {
-							BufferedImage copy = new BufferedImage(itemImage.getWidth(), itemImage.getHeight(), itemImage.getType());
-							Graphics2D graphics = (Graphics2D) copy.getGraphics();
-							graphics.drawImage(itemImage, 0, 0, null);
-							AlphaComposite ac = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f);
-							graphics.setComposite(ac);
-							graphics.drawImage(bankFillerImage, 0, 0/*, (int) (bankFillerImage.getHeight() * 1.5), (int) (bankFillerImage.getWidth() * 1.5)*/, null);
-							setIcon(new ImageIcon(copy));
-						});
-					});
+					plugin.iconCache.get(new IconCache.Key(IconCache.Kind.HIDDEN_SLOT, HiddenSlot.values()[negativeId.id].iconIdToShow, null), this, this::setIcon);
 					setText(null);
-					SwingUtilities.invokeLater(() -> {
-						setToolTipText("hide " + KitType.values()[negativeId.id]);
-					});
+					setToolTipText("hide " + KitType.values()[negativeId.id]);
 				}
 				else if (negativeId.type == NegativeIdsMap.SHOW_SLOT) {
-					AsyncBufferedImage itemImage = (AsyncBufferedImage) plugin.getItemImage(ShownSlot.values()[negativeId.id].iconIdToShow);
-					itemImage.addTo(this);
+					plugin.iconCache.get(new IconCache.Key(IconCache.Kind.ITEM, ShownSlot.values()[negativeId.id].iconIdToShow, null), this, this::setIcon);
 					setText(null);
-					SwingUtilities.invokeLater(() -> {
-						setToolTipText("show " + KitType.values()[negativeId.id]);
-					});
+					setToolTipText("show " + KitType.values()[negativeId.id]);
 				}
 			} else {
-				plugin.clientThread.invoke(() -> {
-					String name = plugin.itemDisplayName(itemId);
-					AsyncBufferedImage itemImage = plugin.getItemImage(Constants.getIconId(itemId));
-					Runnable processImage = () -> {
-						SwingUtilities.invokeLater(() -> {
-							if (overlayString != null)
-							{
-								BufferedImage copy = new BufferedImage(itemImage.getWidth(), itemImage.getHeight(), itemImage.getType());
-								Graphics2D graphics = (Graphics2D) copy.getGraphics();
-								graphics.drawImage(itemImage, 0, 0, null);
-								graphics.drawString(overlayString, 0, 24);
-								setIcon(new ImageIcon(copy));
-							} else {
-								setIcon(new ImageIcon(itemImage));
-							}
-							setToolTipText(name);
-						});
-					};
-					// Yes I might end up running it twice, this stupid asyncbufferedimage doesn't let you know if it's loaded and won't run listeners once it's already been loaded.
-					itemImage.onLoaded(processImage);
-					processImage.run();
-				});
+				plugin.iconCache.get(new IconCache.Key(IconCache.Kind.ITEM, Constants.getIconId(itemId), overlayString), this, this::setIcon);
+				String knownName = plugin.itemNameCache.getDisplayNameIfCached(itemId);
+				if (knownName != null) {
+					setToolTipText(knownName);
+				} else {
+					plugin.clientThread.invoke(() -> {
+						String name = plugin.itemDisplayName(itemId);
+						SwingUtilities.invokeLater(() -> setToolTipText(name));
+					});
+				}
 			}
 		}
 
@@ -1247,29 +1568,26 @@ class TransmogSetPanel extends JPanel
 				ProjectileCast projectileCast = Constants.projectilesById[spellId];
 				setText(null);
 
+				IconCache.Key key = projectileCast.getSpriteIdIcon() != -1
+					? new IconCache.Key(IconCache.Kind.SPELL_SPRITE, projectileCast.getSpriteIdIcon(), overlayString)
+					: new IconCache.Key(IconCache.Kind.SPELL_ITEM, projectileCast.getItemIdIcon(), overlayString);
+				plugin.iconCache.get(key, this, this::setIcon);
 				plugin.clientThread.invoke(() -> {
-					BufferedImage spellImage = plugin.getSpellImage(projectileCast);
-					setIcon(new ImageIcon(spellImage));
 					String name = projectileCast.getName(plugin.itemManager);
-					SwingUtilities.invokeLater(() ->
-					{
-						if (overlayString != null)
-						{
-							BufferedImage copy = new BufferedImage(spellImage.getWidth(), spellImage.getHeight(), spellImage.getType());
-							Graphics2D graphics = (Graphics2D) copy.getGraphics();
-							graphics.drawImage(spellImage, 0, 0, null);
-							graphics.drawString(overlayString, 0, 10);
-							setIcon(new ImageIcon(copy));
-						} else {
-							setIcon(new ImageIcon(spellImage));
-						}
-						setToolTipText(name);
-					});
+					SwingUtilities.invokeLater(() -> setToolTipText(name));
 				});
 			}
 		}
 	}
 
+	private void saveName(String name)
+	{
+		plugin.clientThread.invokeLater(() -> {
+			transmogSet.setName(name);
+			plugin.saveTransmogSets(transmogSet);
+		});
+	}
+
 	private JPanel createNamePanel() {
 		JPanel nameWrapper = new JPanel(new BorderLayout());
 		nameWrapper.setBackground(ColorScheme.DARKER_GRAY_COLOR);
@@ -1306,10 +1624,7 @@ class TransmogSetPanel extends JPanel
 			    // Get the new value of the field, so you don't miss the last letter.
 				if (e.getKeyCode() == KeyEvent.VK_ENTER)
 				{
-					SwingUtilities.invokeLater(() -> {
-						transmogSet.setName(nameInput.getText());
-						plugin.saveTransmogSets();
-					});
+					SwingUtilities.invokeLater(() -> saveName(nameInput.getText()));
 				}
 				else if (e.getKeyCode() == KeyEvent.VK_ESCAPE)
 				{
@@ -1326,10 +1641,7 @@ class TransmogSetPanel extends JPanel
 		nameInput.getTextField().addFocusListener(new FocusAdapter() {
 			@Override
 			public void focusLost(FocusEvent e) {
-				SwingUtilities.invokeLater(() -> {
-					transmogSet.setName(nameInput.getText());
-					plugin.saveTransmogSets();
-				});
+				SwingUtilities.invokeLater(() -> saveName(nameInput.getText()));
 				nameInput.setEditable(false);
 				rename.setVisible(true);
 			}
@@ -1342,6 +1654,7 @@ class TransmogSetPanel extends JPanel
 			    if (!nameInput.getTextField().isEditable()) {
 					plugin.clientThread.invokeLater(() -> {
 						transmogSet.setMinimized(!transmogSet.isMinimized());
+						plugin.saveTransmogSets(transmogSet);
 						SwingUtilities.invokeLater(TransmogSetPanel.this::rebuild);
 					});
 				}
@@ -1378,7 +1691,7 @@ class TransmogSetPanel extends JPanel
 		}, (b) -> {
 			plugin.clientThread.invokeLater(() -> {
 				transmogSet.setEnabled(b);
-				plugin.handleTransmogSetChange();
+				plugin.handleTransmogSetChange(transmogSet);
 			});
 		});
 	}
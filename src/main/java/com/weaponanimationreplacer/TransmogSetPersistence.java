@@ -0,0 +1,454 @@
+package com.weaponanimationreplacer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import static com.weaponanimationreplacer.WeaponAnimationReplacerPlugin.GROUP_NAME;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+
+/**
+ * Write-behind storage for the transmog sets.
+ *
+ * Saves are merged over a short window, so that something like holding down a spinner arrow results in one write
+ * instead of dozens. When the window closes a copy of the changed transmog sets is taken on the client thread (which
+ * is where they are edited), and that copy is serialized and written on the executor.
+ *
+ * Each transmog set is stored under its own key ("transmogSet.&lt;id&gt;"), and "transmogSetOrder" lists the ids in
+ * order. Only sets that were marked dirty get rewritten, so toggling one set doesn't resync all of them.
+ */
+@Slf4j
+@Singleton
+public class TransmogSetPersistence
+{
+	/** The pre-sharding key, which had all transmog sets in one json array. Only read now, for migration. */
+	static final String TRANSMOG_SET_KEY = "transmogSets";
+	static final String ORDER_KEY = "transmogSetOrder";
+	static final String SHARD_KEY_PREFIX = "transmogSet.";
+
+	// Runelite won't store config values that are valid json with a nested depth of 8 or higher. Adding "NOT_JSON"
+	// makes the string not be valid json, circumventing this.
+	// This might not be necessary anymore but I don't feel like updating it; it works fine as is.
+	private static final String NOT_JSON_PREFIX = "NOT_JSON";
+	// Json that is deflate-compressed and then base64 encoded. The version is in the prefix so the format can change
+	// later without guessing what an old value contains.
+	static final String DEFLATE_PREFIX = "DEFLATE_V1:";
+	// Small configs are left as plain json so they stay readable and editable in the config file.
+	private static final int COMPRESS_THRESHOLD = 16 * 1024;
+
+	private static final long SAVE_DELAY_MS = 500;
+	// Don't hold on to a huge buffer forever just because the sets were large once.
+	private static final int MAX_RETAINED_BUFFER = 1 << 20;
+	private static final Type TRANSMOG_SETS_TYPE = new TypeToken<ArrayList<TransmogSet>>() {}.getType();
+
+	@Inject private ConfigManager configManager;
+	@Inject private ClientThread clientThread;
+	@Inject private ScheduledExecutorService executor;
+	@Inject private WeaponAnimationReplacerPlugin plugin;
+
+	// Guarded by this.
+	private ScheduledFuture<?> pendingSave = null;
+	private boolean pendingFullSave = false;
+	/** Set from a profile switch until the new profile's sets are handed over, so that edits to the old sets aren't written into the new profile. */
+	private boolean suspended = false;
+	/** Snapshots are numbered so that an old snapshot can never overwrite a newer one. */
+	private long snapshotCount = 0;
+	private int nextShardId = 0;
+
+	// Guarded by writeLock, which is separate so that scheduling a save never waits on serialization.
+	private final Object writeLock = new Object();
+	private long lastWrittenSnapshot = 0;
+	/** Config values as we last wrote or read them, used to skip writes that would not change anything. */
+	private final Map<String, String> lastWritten = new HashMap<>();
+	/** Shard ids in the last order we wrote or read, so that shards of deleted sets can be unset. */
+	private List<String> writtenOrder = Collections.emptyList();
+	/** Reused between writes so that serializing doesn't have to regrow a buffer each time. */
+	private final StringWriter buffer = new StringWriter(8192);
+
+	/**
+	 * Something about the given set changed; saves it soon. Call from the thread that edits the transmog sets.
+	 */
+	public void scheduleSave(TransmogSet changed)
+	{
+		changed.dirty = true;
+		scheduleSave();
+	}
+
+	/**
+	 * Saves sets that are marked dirty, as well as the order of the sets, soon. Can be called from any thread.
+	 */
+	public synchronized void scheduleSave()
+	{
+		if (suspended) return;
+		if (pendingSave != null) return; // The pending save will pick up this change too.
+
+		pendingSave = executor.schedule(() -> clientThread.invokeLater(this::snapshotAndWrite), SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Saves every set soon, for when it isn't known which sets changed. Can be called from any thread.
+	 */
+	public synchronized void scheduleFullSave()
+	{
+		pendingFullSave = true;
+		scheduleSave();
+	}
+
+	private void snapshotAndWrite()
+	{
+		long snapshotNumber;
+		boolean full;
+		synchronized (this)
+		{
+			if (pendingSave == null) return; // Flushed or discarded in the meantime.
+			pendingSave = null;
+			full = pendingFullSave;
+			pendingFullSave = false;
+			snapshotNumber = ++snapshotCount;
+		}
+
+		Snapshot snapshot = snapshot(plugin.getTransmogSets(), full);
+		if (snapshot == null) return;
+		executor.execute(() -> write(snapshotNumber, snapshot));
+	}
+
+	/**
+	 * Immediately writes any save that is still waiting. Call from the thread that edits the transmog sets.
+	 */
+	public void flush()
+	{
+		long snapshotNumber;
+		boolean full;
+		synchronized (this)
+		{
+			if (pendingSave == null) return;
+			pendingSave.cancel(false);
+			pendingSave = null;
+			full = pendingFullSave;
+			pendingFullSave = false;
+			snapshotNumber = ++snapshotCount;
+		}
+		write(snapshotNumber, snapshot(plugin.getTransmogSets(), full));
+	}
+
+	/**
+	 * Writes all of the given transmog sets synchronously, replacing anything that is waiting to be saved.
+	 */
+	public void saveNow(List<TransmogSet> transmogSets)
+	{
+		long snapshotNumber;
+		synchronized (this)
+		{
+			if (pendingSave != null)
+			{
+				pendingSave.cancel(false);
+				pendingSave = null;
+			}
+			pendingFullSave = false;
+			snapshotNumber = ++snapshotCount;
+		}
+		write(snapshotNumber, snapshot(transmogSets, true));
+	}
+
+	/**
+	 * Drops any save that has not been written yet, and ignores saves until {@link #resumeSaving()}. Used when the
+	 * config profile changes, since a late write would otherwise end up in the new profile.
+	 */
+	public void discardPendingSave()
+	{
+		long snapshotNumber;
+		synchronized (this)
+		{
+			suspended = true;
+			if (pendingSave != null)
+			{
+				pendingSave.cancel(false);
+				pendingSave = null;
+			}
+			pendingFullSave = false;
+			snapshotNumber = ++snapshotCount;
+		}
+		synchronized (writeLock)
+		{
+			// in-flight snapshots are now older than this and will be skipped.
+			lastWrittenSnapshot = Math.max(lastWrittenSnapshot, snapshotNumber);
+			lastWritten.clear();
+			writtenOrder = Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Call once the sets that belong to the current profile are in place.
+	 */
+	public synchronized void resumeSaving()
+	{
+		suspended = false;
+	}
+
+	private static class Snapshot
+	{
+		/** Copies of the sets that need writing, by shard id. */
+		final Map<String, TransmogSet> shards = new LinkedHashMap<>();
+		final List<String> order = new ArrayList<>();
+	}
+
+	// Must be called on the thread that edits the transmog sets.
+	private Snapshot snapshot(List<TransmogSet> transmogSets, boolean full)
+	{
+		if (transmogSets == null) return null; // not sure how this could happen, but I've had people report it and I don't want to write null into the config.
+
+		Snapshot snapshot = new Snapshot();
+		for (TransmogSet transmogSet : transmogSets)
+		{
+			assignShardId(transmogSet);
+			if (full || transmogSet.dirty)
+			{
+				transmogSet.dirty = false;
+				snapshot.shards.put(transmogSet.shardId, transmogSet.frozenCopy());
+			}
+			snapshot.order.add(transmogSet.shardId);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Gives the set a shard id if it doesn't have one yet. Done before a set is first copied, so that copies of it (like
+	 * the ones restored by undo) are saved under the same key. Call from the thread that edits the transmog sets.
+	 */
+	public void assignShardId(TransmogSet transmogSet)
+	{
+		if (transmogSet.shardId != null) return;
+		transmogSet.shardId = newShardId();
+		transmogSet.dirty = true;
+	}
+
+	private synchronized String newShardId()
+	{
+		return String.valueOf(nextShardId++);
+	}
+
+	private void write(long snapshotNumber, Snapshot snapshot)
+	{
+		if (snapshot == null) return;
+
+		synchronized (writeLock)
+		{
+			if (snapshotNumber <= lastWrittenSnapshot) return;
+			lastWrittenSnapshot = snapshotNumber;
+
+			// Shards first, so that the order never refers to a set that hasn't been written yet.
+			for (Map.Entry<String, TransmogSet> entry : snapshot.shards.entrySet())
+			{
+				String value;
+				try
+				{
+					value = serialize(entry.getValue(), TransmogSet.class);
+				}
+				catch (IOException e)
+				{
+					log.error("Could not serialize transmog set", e);
+					continue;
+				}
+				setConfiguration(SHARD_KEY_PREFIX + entry.getKey(), value);
+			}
+
+			setConfiguration(ORDER_KEY, String.join(",", snapshot.order));
+
+			Set<String> live = new HashSet<>(snapshot.order);
+			for (String shardId : writtenOrder)
+			{
+				if (!live.contains(shardId))
+				{
+					configManager.unsetConfiguration(GROUP_NAME, SHARD_KEY_PREFIX + shardId);
+					lastWritten.remove(SHARD_KEY_PREFIX + shardId);
+				}
+			}
+			writtenOrder = snapshot.order;
+		}
+	}
+
+	// Must hold writeLock.
+	private void setConfiguration(String key, String value)
+	{
+		if (value.equals(lastWritten.get(key))) return;
+
+		lastWritten.put(key, value);
+		configManager.setConfiguration(GROUP_NAME, key, value);
+	}
+
+	// Must hold writeLock.
+	private String serialize(Object o, Type type) throws IOException
+	{
+		buffer.getBuffer().setLength(0);
+		buffer.write(NOT_JSON_PREFIX);
+		Gson gson = plugin.getGson();
+		JsonWriter jsonWriter = gson.newJsonWriter(buffer);
+		gson.toJson(o, type, jsonWriter);
+		jsonWriter.flush();
+		StringBuffer sb = buffer.getBuffer();
+		String s = sb.length() - NOT_JSON_PREFIX.length() > COMPRESS_THRESHOLD
+			? compress(sb, NOT_JSON_PREFIX.length(), sb.length())
+			: sb.toString();
+		if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+			buffer.getBuffer().setLength(0);
+			buffer.getBuffer().trimToSize();
+		}
+		return s;
+	}
+
+	/**
+	 * @return the transmog sets stored in the config, or null if there are none.
+	 */
+	public List<TransmogSet> load()
+	{
+		String order = configManager.getConfiguration(GROUP_NAME, ORDER_KEY);
+		if (order == null) return loadUnsharded();
+
+		List<String> shardIds = order.isEmpty() ? Collections.emptyList() : Arrays.asList(order.split(","));
+		List<TransmogSet> transmogSets = new ArrayList<>(shardIds.size());
+		Map<String, String> values = new HashMap<>();
+		values.put(ORDER_KEY, order);
+		List<String> loadedShardIds = new ArrayList<>(shardIds.size());
+		int maxShardId = -1;
+		for (String shardId : shardIds)
+		{
+			try {
+				maxShardId = Math.max(maxShardId, Integer.parseInt(shardId));
+			} catch (NumberFormatException e) {
+				// someone edited their config by hand, it still works as a key.
+			}
+
+			String key = SHARD_KEY_PREFIX + shardId;
+			String value = configManager.getConfiguration(GROUP_NAME, key);
+			if (value == null) {
+				log.warn("missing transmog set " + shardId);
+				continue;
+			}
+
+			TransmogSet transmogSet;
+			try {
+				transmogSet = parse(value, TransmogSet.class);
+			} catch (JsonParseException | IllegalStateException e) {
+				// Leave it in the config rather than losing it, it just won't be in the order anymore.
+				log.error("issue parsing json: " + value, e);
+				continue;
+			}
+			if (transmogSet == null) continue;
+			transmogSet.shardId = shardId;
+			transmogSets.add(transmogSet);
+			values.put(key, value);
+			loadedShardIds.add(shardId);
+		}
+
+		synchronized (this)
+		{
+			nextShardId = Math.max(nextShardId, maxShardId + 1);
+		}
+		synchronized (writeLock)
+		{
+			lastWritten.clear();
+			lastWritten.putAll(values);
+			writtenOrder = loadedShardIds;
+		}
+		return transmogSets;
+	}
+
+	/**
+	 * @return the transmog sets stored in the single key that was used before sets were sharded, or null if there are none.
+	 */
+	public List<TransmogSet> loadUnsharded()
+	{
+		String configuration = configManager.getConfiguration(GROUP_NAME, TRANSMOG_SET_KEY);
+		if (configuration == null) return null;
+
+		List<TransmogSet> transmogSets = parse(configuration, TRANSMOG_SETS_TYPE);
+		if (transmogSets == null) transmogSets = new ArrayList<>();
+		return transmogSets;
+	}
+
+	private <T> T parse(String configuration, Type type)
+	{
+		try (Reader reader = openReader(configuration))
+		{
+			Gson gson = plugin.getGson();
+			JsonReader jsonReader = gson.newJsonReader(reader);
+			return gson.fromJson(jsonReader, type);
+		}
+		catch (IOException e)
+		{
+			// Only the compressed format can get here, if the data is corrupt.
+			throw new JsonIOException(e);
+		}
+	}
+
+	/**
+	 * @return the deflate-compressed, base64 encoded form of json[start, end), with {@link #DEFLATE_PREFIX}.
+	 */
+	static String compress(CharSequence json, int start, int end) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream((end - start) / 4);
+		bytes.write(DEFLATE_PREFIX.getBytes(StandardCharsets.US_ASCII));
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try (Writer writer = new OutputStreamWriter(new DeflaterOutputStream(Base64.getEncoder().wrap(bytes), deflater), StandardCharsets.UTF_8))
+		{
+			writer.append(json, start, end);
+		}
+		finally
+		{
+			deflater.end();
+		}
+		return new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * @return a reader over the json in a stored config value, whichever format it is in.
+	 */
+	static Reader openReader(String configuration) throws IOException
+	{
+		if (configuration.startsWith(DEFLATE_PREFIX)) {
+			byte[] bytes = configuration.getBytes(StandardCharsets.US_ASCII);
+			InputStream base64 = new ByteArrayInputStream(bytes, DEFLATE_PREFIX.length(), bytes.length - DEFLATE_PREFIX.length());
+			return new InputStreamReader(new InflaterInputStream(Base64.getDecoder().wrap(base64)), StandardCharsets.UTF_8);
+		}
+
+		StringReader reader = new StringReader(configuration);
+		if (configuration.startsWith(NOT_JSON_PREFIX)) {
+			reader.skip(NOT_JSON_PREFIX.length());
+		}
+		return reader;
+	}
+}
@@ -118,19 +118,31 @@ public class TransmogrificationManager
 		}
 
 		Integer[] swaps = plugin.getApplicableModelSwaps();
+		applyModelSwaps(kits, swaps, getBaseArms(), getBaseHair(), getBaseJaw());
 
+		player.getPlayerComposition().setHash();
+
+		transmogHash = Arrays.hashCode(kits);
+    }
+
+	/**
+	 * Puts the model swaps into the kits, filling in the arms, hair and jaw that the swapped models show or hide.
+	 * @param swaps kit ids (without the 512 offset) by slot, or null for slots that aren't swapped. Modified.
+	 */
+	static void applyModelSwaps(int[] kits, Integer[] swaps, int baseArms, int baseHair, int baseJaw)
+	{
 		// show slots.
 		Integer arms = swaps[ARMS_SLOT];
 		if (arms != null && arms == SHOW_SLOT) {
-        	swaps[ARMS_SLOT] = getBaseArms() - 512;
+        	swaps[ARMS_SLOT] = baseArms - 512;
 		}
 		Integer hair = swaps[HAIR_SLOT];
 		if (hair != null && hair == SHOW_SLOT) {
-			swaps[HAIR_SLOT] = getBaseHair() - 512;
+			swaps[HAIR_SLOT] = baseHair - 512;
 		}
 		Integer jaw = swaps[JAW_SLOT];
 		if (jaw != null && jaw == SHOW_SLOT) {
-			swaps[JAW_SLOT] = getBaseJaw() - 512;
+			swaps[JAW_SLOT] = baseJaw - 512;
 		}
 
 		// auto-apply arms/hair/jaw.
@@ -139,7 +151,7 @@ public class TransmogrificationManager
 		{
 			if (swaps[ARMS_SLOT] == null)
 			{
-				swaps[ARMS_SLOT] = SHOWS_ARMS.contains(torso) ? getBaseArms() - 512 : 0;
+				swaps[ARMS_SLOT] = SHOWS_ARMS.contains(torso) ? baseArms - 512 : 0;
 			}
 		}
 		Integer head = swaps[HEAD_SLOT];
@@ -147,11 +159,11 @@ public class TransmogrificationManager
 		{
 			if (swaps[HAIR_SLOT] == null)
 			{
-				swaps[HAIR_SLOT] = !HIDES_HAIR.contains(head) ? getBaseHair() - 512 : 0;
+				swaps[HAIR_SLOT] = !HIDES_HAIR.contains(head) ? baseHair - 512 : 0;
 			}
 			if (swaps[JAW_SLOT] == null && kits[JAW_SLOT] <= 512) // Do not replace people's blue icons.
 			{
-				swaps[JAW_SLOT] = !HIDES_JAW.contains(head) ? getBaseJaw() - 512 : 0;
+				swaps[JAW_SLOT] = !HIDES_JAW.contains(head) ? baseJaw - 512 : 0;
 			}
 		}
 
@@ -161,11 +173,7 @@ public class TransmogrificationManager
 				kits[i] = swaps[i] + 512;
 			}
 		}
-
-		player.getPlayerComposition().setHash();
-
-		transmogHash = Arrays.hashCode(kits);
-    }
+	}
 
 	private void storeState(int[] kits)
 	{
@@ -228,4 +236,16 @@ public class TransmogrificationManager
 			baseKit :
 			(client.getLocalPlayer().getPlayerComposition().getGender() == 1 /* female */ ? defaultFemaleModel : defaultMaleModel);
 	}
+
+	/**
+	 * For another player, whose arms, hair and jaw are taken from their untransmogged kits where those slots are showing.
+	 */
+	static void applyModelSwaps(int[] kits, Integer[] swaps, int[] originalKits, int gender)
+	{
+		boolean female = gender == 1;
+		int arms = originalKits[ARMS_SLOT] != 0 ? originalKits[ARMS_SLOT] : female ? DEFAULT_FEMALE_ARMS : DEFAULT_MALE_ARMS;
+		int hair = originalKits[HAIR_SLOT] != 0 ? originalKits[HAIR_SLOT] : female ? DEFAULT_FEMALE_HAIR : DEFAULT_MALE_HAIR;
+		int jaw = female ? 0 : originalKits[JAW_SLOT] != 0 ? originalKits[JAW_SLOT] : DEFAULT_MALE_JAW;
+		applyModelSwaps(kits, swaps, arms, hair, jaw);
+	}
 }
@@ -30,4 +30,71 @@ public interface WeaponAnimationReplacerConfig extends Config
 	{
 		return false;
 	}
+
+	enum OtherPlayers
+	{
+		OFF,
+		CLAN,
+		NAMES,
+		CLAN_AND_NAMES,
+	}
+
+	@ConfigItem(
+		keyName = "otherPlayers",
+		name = "Other players",
+		description = "Which other players the options below apply to: clan and friends chat members, the players " +
+			"named below, or both.",
+		position = 2
+	)
+	default OtherPlayers otherPlayers()
+	{
+		return OtherPlayers.OFF;
+	}
+
+	@ConfigItem(
+		keyName = "otherPlayersNames",
+		name = "Player names",
+		description = "Comma-separated names of players for the other players options.",
+		position = 3
+	)
+	default String otherPlayersNames()
+	{
+		return "";
+	}
+
+	@ConfigItem(
+		keyName = "otherPlayersSpells",
+		name = "Other players' spells",
+		description = "Use your spell swaps on spells cast by the other players. Only spells with projectiles are " +
+			"replaced for other players.",
+		position = 4
+	)
+	default boolean otherPlayersSpells()
+	{
+		return true;
+	}
+
+	@ConfigItem(
+		keyName = "otherPlayersTransmog",
+		name = "Other players' transmog",
+		description = "Apply your transmog sets and animation swaps to the other players, based on the gear they " +
+			"are wearing.",
+		position = 5
+	)
+	default boolean otherPlayersTransmog()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "npcAnimations",
+		name = "NPC animations",
+		description = "One rule per line. \"npc id: animation set name\" gives the npc that animation set's idle, " +
+			"walk and run animations. \"npc id: 123>456, 789>1011\" replaces animation 123 with 456, and 789 with 1011.",
+		position = 6
+	)
+	default String npcAnimations()
+	{
+		return "";
+	}
 }
@@ -2,16 +2,13 @@ package com.weaponanimationreplacer;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.google.inject.Provides;
 import com.weaponanimationreplacer.ChatBoxFilterableSearch.SelectionResult;
 import static com.weaponanimationreplacer.Constants.NegativeIdsMap.HIDE_SLOT;
@@ -24,15 +21,21 @@ import static com.weaponanimationreplacer.Swap.AnimationType.ALL;
 import static com.weaponanimationreplacer.Swap.AnimationType.ATTACK;
 import static com.weaponanimationreplacer.WeaponAnimationReplacerPlugin.SearchType.MODEL_SWAP;
 import static com.weaponanimationreplacer.WeaponAnimationReplacerPlugin.SearchType.SPELL_R;
-import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -45,20 +48,27 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
-import net.runelite.api.JagexColor;
-import net.runelite.api.Model;
 import net.runelite.api.NPC;
 import net.runelite.api.Perspective;
 import net.runelite.api.Player;
 import net.runelite.api.Projectile;
-import net.runelite.api.RuneLiteObject;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.AnimationChanged;
+import net.runelite.api.events.ClanMemberJoined;
+import net.runelite.api.events.ClanMemberLeft;
 import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.FriendsChatMemberJoined;
+import net.runelite.api.events.FriendsChatMemberLeft;
 import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GraphicChanged;
 import net.runelite.api.events.InteractingChanged;
+import net.runelite.api.events.NpcChanged;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
 import net.runelite.api.events.PlayerChanged;
+import net.runelite.api.events.PlayerDespawned;
+import net.runelite.api.events.PlayerSpawned;
 import net.runelite.api.events.ProjectileMoved;
 import net.runelite.api.kit.KitType;
 import net.runelite.client.callback.ClientThread;
@@ -68,7 +78,6 @@ import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.events.ProfileChanged;
 import net.runelite.client.game.ItemManager;
-import net.runelite.client.game.SpriteManager;
 import net.runelite.client.game.chatbox.ChatboxPanelManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -76,8 +85,8 @@ import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.ClientUI;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.ui.components.colorpicker.ColorPickerManager;
-import net.runelite.client.util.AsyncBufferedImage;
 import net.runelite.client.util.ImageUtil;
+import net.runelite.client.util.Text;
 import net.runelite.http.api.item.ItemEquipmentStats;
 import net.runelite.http.api.item.ItemStats;
 
@@ -91,7 +100,8 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 
 	public static final String GROUP_NAME = "WeaponAnimationReplacer";
 
-	private static final String TRANSMOG_SET_KEY = "transmogSets";
+	private static final String TRANSMOG_SET_KEY = TransmogSetPersistence.TRANSMOG_SET_KEY;
+	private static final int SERIAL_VERSION = 3;
 
 	@Inject Client client;
 	@Inject EventBus eventBus;
@@ -99,33 +109,47 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 	@Inject private ClientToolbar clientToolbar;
 	@Inject private ConfigManager configManager;
 	@Inject private TransmogrificationManager transmogManager;
+	@Inject private TransmogSetPersistence persistence;
+	@Inject private SpellCastTracker spellCastTracker;
 	@Inject private Gson runeliteGson;
 	@Inject ClientUI clientUI;
 	@Inject ItemManager itemManager;
-	@Inject private SpriteManager spriteManager;
+	@Inject IconCache iconCache;
+	@Inject ItemNameCache itemNameCache;
 	@Inject ClientThread clientThread;
 	@Inject ColorPickerManager colorPickerManager;
 	@Inject private ChatboxPanelManager chatboxPanelManager;
 	@Inject private WeaponAnimationReplacerConfig config;
+	@Inject private ScheduledExecutorService executor;
 
+	/**
+	 * The transmog sets as the side panel edits them. Only modified on the client thread, which publishes
+	 * {@link #configSnapshot} after each change; game code should read the snapshot instead.
+	 */
 	@Getter
 	List<TransmogSet> transmogSets = null;
+	private final AtomicReference<TransmogConfigSnapshot> configSnapshot = new AtomicReference<>(TransmogConfigSnapshot.EMPTY);
+	private final AtomicLong configSnapshotVersion = new AtomicLong();
+	final EditHistory editHistory = new EditHistory();
 
 	WeaponAnimationReplacerPluginPanel pluginPanel;
 	private NavigationButton navigationButton;
+	private volatile boolean sidePanelWanted = false;
 
 	/**
 	 * This is updated earlier than the player's equipment inventory. It uses the kit data, so it will have some negative numbers in it if there is no gear in that slot, or it is a jaw/hair/arms or something like that.
 	 */
 	private List<Integer> equippedItemsFromKit = new ArrayList<>();
+	/** Standardized names of people who joined or left the clan or friends chat, not yet handled. */
+	private final Set<String> changedMemberNames = new HashSet<>();
 	private final List<Integer> naturalPlayerPoseAnimations = new ArrayList<>();
 	private AnimationReplacements currentAnimations = new AnimationReplacements();
-	private GraphicEffect currentScytheGraphicEffect = null;
-	int scytheSwingCountdown = -1;
-	int delayedGfxToApply = -1;
-	int delayedGfxHeightToApply = -1;
-	Actor actorToApplyDelayedGfxTo = null;
-	int timeToApplyDelayedGfx = -1;
+	@Inject private GraphicEffectEngine graphicEffects;
+	private final DelayedGraphicScheduler delayedGraphics = new DelayedGraphicScheduler();
+	private final SpellTargetTracker spellTargets = new SpellTargetTracker();
+	@Inject private OtherPlayerTracker otherPlayers;
+	@Inject private OtherPlayerTransmog otherPlayerTransmog;
+	@Inject private NpcAnimationReplacer npcAnimations;
 	// For handling spells that have no projectiles which are harder to identify. This must be toggled off in onProjectileMoved the the spell is replaced there.
 	private boolean handlePossibleNoProjectileSpellInClientTick = false;
 
@@ -134,6 +158,9 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 	int previewItem = -1;
 	AnimationReplacements previewAnimationReplacements = null;
 
+	/** Incremented on every profile switch, so that a load for a profile that is no longer active is thrown away. */
+	private final AtomicInteger profileLoadGeneration = new AtomicInteger();
+
 	private Gson customGson = null; // Lazy initialized due to timing of @Injected runeliteGson and not being able to use constructor injection.
 	Gson getGson()
 	{
@@ -141,70 +168,98 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 
 		GsonBuilder gsonBuilder = runeliteGson.newBuilder();
 
-		// Do not serialize empty maps.
-		// Map must not use generics or the serializer will not be called.
-		gsonBuilder.registerTypeAdapter(new TypeToken<Map>() {}.getType(), new JsonSerializer<Map<?, ?>>() {
+		// Do not serialize empty maps or lists.
+		// This only applies to fields declared as exactly Map or List, so e.g. an ArrayList passed to toJson directly is
+		// still written.
+		gsonBuilder.registerTypeAdapterFactory(new TypeAdapterFactory() {
 			@Override
-			public JsonElement serialize(Map<?, ?> map, Type typeOfSrc, JsonSerializationContext context) {
-				if (map.isEmpty()) return null;
+			public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+				Class<? super T> rawType = typeToken.getRawType();
+				if (rawType != Map.class && rawType != List.class) return null;
+
+				TypeAdapter<T> delegate = gson.getDelegateAdapter(this, typeToken);
+				return new TypeAdapter<T>() {
+					@Override
+					public void write(JsonWriter out, T value) throws IOException {
+						boolean empty = value == null || (value instanceof Map ? ((Map<?, ?>) value).isEmpty() : ((List<?>) value).isEmpty());
+						if (empty) {
+							out.nullValue(); // the field name is dropped along with it since nulls are not serialized.
+						} else {
+							delegate.write(out, value);
+						}
+					}
 
-				JsonObject object = new JsonObject();
-				for (Map.Entry<?, ?> entry : map.entrySet())
-				{
-					JsonElement element = context.serialize(entry.getValue());
-					object.add(String.valueOf(entry.getKey()), element);
-				}
-				return object;
+					@Override
+					public T read(JsonReader in) throws IOException {
+						return delegate.read(in);
+					}
+				};
 			}
 		});
-		// Do not serialize empty lists.
-		// List must not use generics or the serializer will not be called.
-		gsonBuilder.registerTypeAdapter(new TypeToken<List>() {}.getType(), new JsonSerializer<List<?>>() {
+		gsonBuilder.registerTypeAdapter(AnimationSet.class, new TypeAdapter<AnimationSet>() {
 			@Override
-			public JsonElement serialize(List<?> list, Type typeOfSrc, JsonSerializationContext context) {
-				if (list.isEmpty()) return null;
+			public void write(JsonWriter out, AnimationSet set) throws IOException {
+				if (set == null) {
+					out.nullValue();
+				} else {
+					out.value(set.name);
+				}
+			}
 
-				JsonArray array = new JsonArray();
-				for (Object child : list) {
-					JsonElement element = context.serialize(child);
-					array.add(element);
+			@Override
+			public AnimationSet read(JsonReader in) throws IOException {
+				JsonToken token = in.peek();
+				if (token == JsonToken.NULL) {
+					in.nextNull();
+					return null;
+				}
+				if (token != JsonToken.STRING) {
+					throw new JsonParseException("animationset is supposed to be a string.");
 				}
-				return array;
+				String s = in.nextString();
+				String newS = renames.get(s);
+				if (newS != null) {
+					log.debug("updating \"" + s + "\" to \"" + newS + "\"");
+					s = newS;
+				}
+				AnimationSet animationSet = AnimationSet.getAnimationSet(s);
+				if (animationSet == null) return AnimationSet.animationSets.get(0);
+				return animationSet;
 			}
 		});
-		Type animationSetTypeToken = new TypeToken<AnimationSet>() {}.getType();
-		JsonSerializer<AnimationSet> serializer = new JsonSerializer<AnimationSet>() {
+		gsonBuilder.registerTypeAdapter(AnimationType.class, new TypeAdapter<AnimationType>() {
 			@Override
-			public JsonElement serialize(AnimationSet set, Type typeOfSrc, JsonSerializationContext context) {
-				return new JsonPrimitive(set.name);
+			public void write(JsonWriter out, AnimationType type) throws IOException {
+				if (type == null) {
+					out.nullValue();
+				} else {
+					out.value(type.name());
+				}
 			}
-		};
-		gsonBuilder.registerTypeAdapter(animationSetTypeToken, serializer);
-		JsonDeserializer<AnimationSet> deserializer = new JsonDeserializer<AnimationSet>() {
+
 			@Override
-			public AnimationSet deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-				if (jsonElement instanceof JsonPrimitive && ((JsonPrimitive) jsonElement).isString()) {
-					String s = jsonElement.getAsString();
-					String newS = renames.get(s);
-					if (newS != null) {
-						log.debug("updating \"" + s + "\" to \"" + newS + "\"");
-						s = newS;
+			public AnimationType read(JsonReader in) throws IOException {
+				JsonToken token = in.peek();
+				if (token == JsonToken.NULL) {
+					in.nextNull();
+					return null;
+				}
+				// there used to be an object here instead of just the enum.
+				if (token == JsonToken.BEGIN_OBJECT) {
+					AnimationType type = null;
+					in.beginObject();
+					while (in.hasNext()) {
+						if (in.nextName().equals("type") && in.peek() == JsonToken.STRING) {
+							type = AnimationType.valueOf(in.nextString());
+						} else {
+							in.skipValue();
+						}
 					}
-					AnimationSet animationSet = AnimationSet.getAnimationSet(s);
-					if (animationSet == null) return AnimationSet.animationSets.get(0);
-					return animationSet;
-				} else {
-					throw new JsonParseException("animationset is supposed to be a string.");
+					in.endObject();
+					return type;
 				}
+				return AnimationType.valueOf(in.nextString());
 			}
-		};
-		gsonBuilder.registerTypeAdapter(animationSetTypeToken, deserializer);
-		gsonBuilder.registerTypeAdapter(new TypeToken<AnimationType>(){}.getType(), (JsonDeserializer<AnimationType>) (jsonElement, type, jsonDeserializationContext) -> {
-			// there used to be an object here instead of just the enum.
-			if (jsonElement instanceof JsonObject) {
-				jsonElement = ((JsonObject) jsonElement).get("type");
-			}
-			return AnimationType.valueOf(jsonElement.getAsString());
 		});
 
 		customGson = gsonBuilder.create();
@@ -217,10 +272,15 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
         clientThread.invokeLater(() -> {
 			transmogManager.startUp();
 			eventBus.register(transmogManager);
+			eventBus.register(spellCastTracker);
+			spellCastTracker.init();
 
         	Constants.loadData(getGson());
+			otherPlayers.reload();
+			npcAnimations.reload();
 
 			reloadTransmogSetsFromConfig();
+			otherPlayerTransmog.refreshAll();
 
 			// record player's untransmogged state.
 			if (client.getGameState() == GameState.LOGGED_IN) {
@@ -233,8 +293,7 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 				currentAnimations = new AnimationReplacements();
 			}
 
-			currentScytheGraphicEffect = null;
-			scytheSwingCountdown = -1;
+			graphicEffects.setEffects(Collections.emptyList());
 			previewItem = -1;
 			norecurse = false;
 
@@ -259,8 +318,8 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 
 				List<TransmogSet> transmogSets = migrate(configuration);
 
-				this.transmogSets = transmogSets;
-				saveTransmogSets();
+				setTransmogSets(transmogSets);
+				persistence.saveNow(transmogSets);
 				configManager.setConfiguration(GROUP_NAME, "rulesbackup", configuration); // just in case!
 				configManager.unsetConfiguration(GROUP_NAME, "rules");
 			}
@@ -274,7 +333,30 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 			fixBadAutoAnimationReplacements();
 		}
 
-		configManager.setConfiguration(GROUP_NAME, "serialVersion", 2);
+		if (serialVersion <= 2) {
+			// Each transmog set gets its own config key now, so that editing one set doesn't rewrite all of them.
+			shardTransmogSets();
+		}
+
+		configManager.setConfiguration(GROUP_NAME, "serialVersion", SERIAL_VERSION);
+	}
+
+	private void shardTransmogSets()
+	{
+		String configuration = configManager.getConfiguration(GROUP_NAME, TRANSMOG_SET_KEY);
+		if (configuration == null) return; // nothing to convert.
+
+		List<TransmogSet> transmogSets;
+		try {
+			transmogSets = getTransmogSetsFromConfig();
+		} catch (JsonParseException | IllegalStateException e) {
+			log.error("issue parsing json: " + configuration, e);
+			return;
+		}
+		setTransmogSets(transmogSets);
+		persistence.saveNow(transmogSets);
+		configManager.setConfiguration(GROUP_NAME, TRANSMOG_SET_KEY + "backup", configuration); // just in case!
+		configManager.unsetConfiguration(GROUP_NAME, TRANSMOG_SET_KEY);
 	}
 
 	private void fixBadAutoAnimationReplacements()
@@ -295,8 +377,8 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 				}
 			}
 		}
-		this.transmogSets = transmogSets;
-		saveTransmogSets();
+		setTransmogSets(transmogSets);
+		persistence.saveNow(transmogSets);
 	}
 
 	private void updateForSortOrder()
@@ -315,8 +397,8 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 				swap.updateForSortOrderAndUniqueness(this);
 			}
 		}
-		this.transmogSets = transmogSets;
-		saveTransmogSets();
+		setTransmogSets(transmogSets);
+		persistence.saveNow(transmogSets);
 	}
 
 	List<TransmogSet> migrate(String config)
@@ -343,9 +425,19 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 	protected void shutDown() {
 		showSidePanel(false);
 
+		profileLoadGeneration.incrementAndGet(); // drop any profile load that is still running.
+		SwingUtilities.invokeLater(iconCache::clear);
+
 		clientThread.invokeLater(() -> {
+			persistence.flush(); // copies the sets, so it has to be on the client thread.
 			eventBus.unregister(transmogManager);
+			eventBus.unregister(spellCastTracker);
+			spellCastTracker.clear();
 			transmogManager.shutDown();
+			otherPlayerTransmog.removeAll();
+			npcAnimations.removeAll();
+			graphicEffects.reset();
+			delayedGraphics.clear();
 
 			if (!naturalPlayerPoseAnimations.isEmpty())
 			{
@@ -354,34 +446,90 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 					animation.setAnimation(client.getLocalPlayer(), naturalPlayerPoseAnimations.get(animation.ordinal()));
 				}
 			}
-		});
 
-		transmogSets = null;
+			setTransmogSets(null);
+		});
     }
 
     @Subscribe
 	public void onProfileChanged(ProfileChanged e) {
+		// This event is sent after the switch, so anything still waiting to be saved, or edited before the new profile's
+		// sets are loaded, would be written into the new profile.
+		persistence.discardPendingSave();
 		chatboxPanelManager.close();
-		clientThread.invokeLater(() -> {
-			reloadTransmogSetsFromConfig();
-			handleTransmogSetChange();
-			if (pluginPanel != null) SwingUtilities.invokeLater(pluginPanel::rebuild);
+
+		// Parsing a large config takes long enough to hitch the client, so it is done here and only the result is
+		// handed to the client thread.
+		int generation = profileLoadGeneration.incrementAndGet();
+		executor.execute(() -> {
+			if (needsMigration()) {
+				// Migrations touch item data, which has to be done on the client thread. This only happens once per profile.
+				clientThread.invokeLater(() -> {
+					if (generation != profileLoadGeneration.get()) return;
+					reloadTransmogSetsFromConfig();
+					onTransmogSetsReloaded();
+				});
+				return;
+			}
+
+			List<TransmogSet> loaded = loadTransmogSetsFromConfig();
+			clientThread.invokeLater(() -> {
+				if (generation != profileLoadGeneration.get()) return; // another switch happened while this one was loading.
+				setTransmogSets(loaded);
+				onTransmogSetsReloaded();
+			});
 		});
 	}
 
+	private void onTransmogSetsReloaded()
+	{
+		// Nothing was edited, so this isn't an undo step. Only sets that have never been saved, like the defaults, are written.
+		persistence.scheduleSave();
+		reapplyTransmogSets();
+		if (pluginPanel != null) SwingUtilities.invokeLater(pluginPanel::rebuild);
+	}
+
+	private boolean needsMigration()
+	{
+		String serialVersionString = configManager.getConfiguration(GROUP_NAME, "serialVersion");
+		try {
+			return serialVersionString == null || Integer.parseInt(serialVersionString) < SERIAL_VERSION;
+		} catch (NumberFormatException ex) {
+			return true;
+		}
+	}
+
 	private void reloadTransmogSetsFromConfig()
 	{
 		migrate();
 
+		setTransmogSets(loadTransmogSetsFromConfig());
+	}
+
+	/**
+	 * Reads and validates the transmog sets. Safe to call off of the client thread; the result isn't seen by anything
+	 * else until it is passed to {@link #setTransmogSets}.
+	 */
+	private List<TransmogSet> loadTransmogSetsFromConfig()
+	{
+		List<TransmogSet> loaded;
 		try
 		{
-			transmogSets = getTransmogSetsFromConfig();
+			loaded = getTransmogSetsFromConfig();
 		}
 		catch (JsonParseException | IllegalStateException ex)
 		{
-			log.error("issue parsing json: " + configManager.getConfiguration(GROUP_NAME, TRANSMOG_SET_KEY), ex);
-			transmogSets = new ArrayList<>();
+			log.error("issue parsing transmog sets", ex);
+			return new ArrayList<>();
+		}
+
+		// Hand edited configs can contain nulls, which the rest of the plugin doesn't expect.
+		loaded.removeIf(transmogSet -> transmogSet == null || transmogSet.getSwaps() == null);
+		for (TransmogSet transmogSet : loaded)
+		{
+			transmogSet.getSwaps().removeIf(Objects::isNull);
 		}
+		return loaded;
 	}
 
     @Provides
@@ -398,49 +546,177 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 		renames.put("Knife", "Knife (non-dragon)");
 	}
 
-	public List<TransmogSet> getTransmogSetsFromConfig() {
-        String configuration = configManager.getConfiguration(GROUP_NAME, TRANSMOG_SET_KEY);
-        if (configuration == null) return getDefaultTransmogSets();
-		if (configuration.startsWith("NOT_JSON")) {
-			configuration = configuration.substring("NOT_JSON".length());
+	private void setTransmogSets(List<TransmogSet> transmogSets)
+	{
+		this.transmogSets = transmogSets;
+		if (transmogSets != null) persistence.resumeSaving(); // edits made during a profile load were to the old profile's sets.
+		publishConfigSnapshot();
+		editHistory.reset(configSnapshot.get().getTransmogSets());
+		updateUndoRedoButtons();
+	}
+
+	/**
+	 * Publishes the current state of {@link #transmogSets}, and records it in the edit history. Call after any edit, on
+	 * the client thread.
+	 */
+	private void publishConfigSnapshot()
+	{
+		publishConfigSnapshot(true);
+	}
+
+	private void publishConfigSnapshot(boolean recordHistory)
+	{
+		List<TransmogSet> transmogSets = this.transmogSets;
+		if (transmogSets != null)
+		{
+			for (TransmogSet transmogSet : transmogSets)
+			{
+				persistence.assignShardId(transmogSet);
+			}
 		}
-		List<TransmogSet> transmogSets = getGson().fromJson(configuration, new TypeToken<ArrayList<TransmogSet>>() {}.getType());
-		if (transmogSets == null) transmogSets = new ArrayList<>();
-		return transmogSets;
+		long version = configSnapshotVersion.incrementAndGet();
+		TransmogConfigSnapshot snapshot = TransmogConfigSnapshot.of(version, transmogSets == null ? Collections.emptyList() : transmogSets);
+		// Never replace a newer snapshot with an older one.
+		configSnapshot.updateAndGet(current -> current.getVersion() < version ? snapshot : current);
+		if (recordHistory && editHistory.record(snapshot.getTransmogSets()))
+		{
+			updateUndoRedoButtons();
+		}
+	}
+
+	/**
+	 * For changes that are still being made, like dragging a color: the game sees them right away, but they aren't saved
+	 * or added to the edit history until the change is finished with {@link #saveTransmogSets(TransmogSet)}.
+	 */
+	public void previewTransmogSetChange(TransmogSet changed)
+	{
+		if (transmogSets == null) return;
+
+		changed.invalidateFrozenCopy();
+		publishConfigSnapshot(false);
+		if (client.getLocalPlayer() != null) updateAnimations();
+	}
+
+	private void updateUndoRedoButtons()
+	{
+		SwingUtilities.invokeLater(() -> {
+			if (pluginPanel != null) pluginPanel.updateUndoRedoButtons();
+		});
+	}
+
+	public void undo()
+	{
+		restore(editHistory.undo());
+	}
+
+	public void redo()
+	{
+		restore(editHistory.redo());
+	}
+
+	/**
+	 * Goes back or forward to a state from the edit history. Sets that are the same in both states are kept as they are,
+	 * so their panels aren't rebuilt.
+	 */
+	private void restore(List<TransmogSet> state)
+	{
+		if (state == null || transmogSets == null) return;
+
+		Map<TransmogSet, TransmogSet> liveByFrozen = new IdentityHashMap<>();
+		for (TransmogSet transmogSet : transmogSets)
+		{
+			liveByFrozen.put(transmogSet.frozenCopy(), transmogSet);
+		}
+		List<TransmogSet> restored = new ArrayList<>(state.size());
+		for (TransmogSet frozen : state)
+		{
+			TransmogSet live = liveByFrozen.remove(frozen);
+			if (live == null)
+			{
+				live = TransmogSet.thaw(frozen);
+				persistence.scheduleSave(live); // only the sets that differ are rewritten, under their old shards.
+			}
+			restored.add(live);
+		}
+
+		transmogSets = restored;
+		publishConfigSnapshot(); // the same sets as state, so this doesn't add to the history.
+		updateUndoRedoButtons();
+		persistence.scheduleSave(); // the order, and sets that are gone.
+		reapplyTransmogSets();
+		SwingUtilities.invokeLater(pluginPanel::rebuild);
+	}
+
+	public TransmogConfigSnapshot getConfigSnapshot()
+	{
+		return configSnapshot.get();
+	}
+
+	public List<TransmogSet> getTransmogSetsFromConfig() {
+		List<TransmogSet> transmogSets = persistence.load();
+		return transmogSets != null ? transmogSets : getDefaultTransmogSets();
     }
 
+	/**
+	 * Saves every transmog set soon, on another thread. Rapid edits are merged into a single write. For when the list
+	 * itself was replaced; a set that was edited in place must go through {@link #saveTransmogSets(TransmogSet)}, which
+	 * is what lets unchanged sets keep sharing their frozen copies.
+	 */
     public void saveTransmogSets() {
 		if (transmogSets == null) return; // not sure how this could happen, but I've had people report it and I don't want to write null into the config.
 
-    	// Runelite won't store config values that are valid json with a nested depth of 8 or higher. Adding "NOT_JSON"
-		// makes the string not be valid json, circumventing this.
-		// This might not be necessary anymore but I don't feel like updating it; it works fine as is.
-        String s = "NOT_JSON" + getGson().toJson(transmogSets);
-        configManager.setConfiguration(GROUP_NAME, TRANSMOG_SET_KEY, s);
+		publishConfigSnapshot();
+		persistence.scheduleFullSave();
     }
 
+	/**
+	 * Like {@link #saveTransmogSets()}, but only rewrites the transmog set that changed.
+	 */
+	public void saveTransmogSets(TransmogSet changed) {
+		if (transmogSets == null) return;
+
+		changed.invalidateFrozenCopy();
+		publishConfigSnapshot();
+		persistence.scheduleSave(changed);
+	}
+
 	/**
 	 * Saves transmog sets to config, reapplies transmog and pose animations.
 	 */
 	public void handleTransmogSetChange() {
 		saveTransmogSets();
+		reapplyTransmogSets();
+    }
 
+	/**
+	 * Like {@link #handleTransmogSetChange()}, but only rewrites the transmog set that changed.
+	 */
+	public void handleTransmogSetChange(TransmogSet changed) {
+		saveTransmogSets(changed);
+		reapplyTransmogSets();
+	}
+
+	private void reapplyTransmogSets() {
 		if (client.getLocalPlayer() != null)
 		{
 			transmogManager.changeTransmog();
 			updateAnimations();
 		}
-    }
+		clientThread.invokeLater(otherPlayerTransmog::refreshAll);
+	}
 
     public void deleteTransmogSet(int index) {
 		transmogSets.remove(index);
-		handleTransmogSetChange();
+		publishConfigSnapshot();
+		persistence.scheduleSave(); // only the order changed.
+		reapplyTransmogSets();
 		SwingUtilities.invokeLater(pluginPanel::rebuild);
 	}
 
     public void addNewTransmogSet(int index) {
         transmogSets.add(index, TransmogSet.createTemplate());
-        saveTransmogSets();
+        publishConfigSnapshot();
+        persistence.scheduleSave(); // new sets are always written.
 		SwingUtilities.invokeLater(pluginPanel::rebuild);
 	}
 
@@ -448,7 +724,9 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
         if ((!up && index == transmogSets.size() - 1) || (up && index == 0)) return;
         TransmogSet swap = transmogSets.remove(index);
         transmogSets.add(index + (up ? -1 : 1), swap);
-        handleTransmogSetChange();
+        publishConfigSnapshot();
+        persistence.scheduleSave(); // only the order changed.
+        reapplyTransmogSets();
         SwingUtilities.invokeLater(pluginPanel::rebuild);
     }
 
@@ -463,21 +741,18 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 		int playerAnimation = player.getAnimation();
 		if (playerAnimation == -1) return;
 
-		Optional<AnimationType> type = AnimationSet.animationSets.stream()
-			.map(set -> set.getType(playerAnimation))
-			.filter(t -> t != null)
-			.findFirst();
-		if (!type.isPresent()) return;
+		AnimationType type = AnimationSet.getAnimationType(playerAnimation);
+		if (type == null) return;
 
-		Integer replacementAnim = currentAnimations.getAnimation(type.get());
+		Integer replacementAnim = currentAnimations.getAnimation(type);
 		if (replacementAnim != null)
 		{
 			log.debug("replacing animation {} with {}", playerAnimation, replacementAnim);
 			player.setAnimation(replacementAnim);
 		}
 
-		if (currentScytheGraphicEffect != null && AnimationType.ATTACK.appliesTo(type.get())) {
-			scytheSwingCountdown = 20;
+		if (AnimationType.ATTACK.appliesTo(type)) {
+			graphicEffects.trigger(GraphicEffect.Trigger.ATTACK_ANIMATION);
 		}
 	}
 
@@ -488,18 +763,10 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 			replaceNoProjectileSpell();
 		}
 
-		if (client.getGameCycle() == timeToApplyDelayedGfx) {
-//			System.out.println("it is " + client.getGameCycle() + ", applying delayed gfx.");
-			actorToApplyDelayedGfxTo.setGraphic(delayedGfxToApply);
-			actorToApplyDelayedGfxTo.setSpotAnimFrame(0);
-			actorToApplyDelayedGfxTo.setGraphicHeight(delayedGfxHeightToApply);
-		}
+		delayedGraphics.applyDue(client.getGameCycle());
 
-		if (scytheSwingCountdown == 0) {
-			createScytheSwing();
-		} else {
-			scytheSwingCountdown--;
-		}
+		graphicEffects.tick();
+		spellTargets.clear();
     }
 
 	private void replaceNoProjectileSpell()
@@ -523,39 +790,16 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 			if (toReplace.getCastGfx() != -1) {
 				if (toReplace.getCastGfx() != player.getGraphic()) continue;
 			} else {
-				// TODO check autocast and last cast spell.
+				// Several spells share this animation, so make sure it's this one.
+				if (!spellCastTracker.isCast(toReplace, player.getInteracting())) continue;
 			}
 
-			boolean isBarrage = false;
-			int chebyshevDistance = chebyshevDistance(player, player.getInteracting(), isBarrage);
+			SpellTiming timing = Constants.getSpellTiming(toReplace);
+			if (timing == null) return; // shouldn't happen.
+			int chebyshevDistance = chebyshevDistance(player, player.getInteracting(), timing.isBarrage());
 //			System.out.println("distance is " + chebyshevDistance);
-			// TODO splash detection.
-			int projectileTravelTime;
-			int graphicDelay;
 			ProjectileCast toReplaceWith = projectileSwap.getToReplaceWith();
-			switch (toReplace.getCastAnimation()) {
-				// magic spells.
-				case 811:
-					projectileTravelTime = 120 - toReplaceWith.getStartMovement();
-					graphicDelay = 48 + 10 * chebyshevDistance;
-					break;
-				case 1978:
-				case 1979:
-					projectileTravelTime = -5 + 10 * chebyshevDistance;
-					graphicDelay = 48 + 10 * chebyshevDistance;
-					break;
-				// arceuus spells.
-				case 8972:
-				case 8974:
-				case 8977:
-					// TODO check these values in-game.
-					projectileTravelTime = 60; // 2 ticks, according to hit delay article.
-					graphicDelay = 60;
-					break;
-				default:
-					return; // shouldn't happen.
-			}
-			int endCycle = client.getGameCycle() + toReplaceWith.getStartMovement() + projectileTravelTime;
+			int endCycle = client.getGameCycle() + timing.getHitCycles(chebyshevDistance, toReplaceWith);
 			int targetX = player.getInteracting().getLocalLocation().getX();
 			int targetY = player.getInteracting().getLocalLocation().getY();
 			int startHeight = Perspective.getTileHeight(client, player.getLocalLocation(), player.getWorldLocation().getPlane()) + toReplaceWith.height;
@@ -581,11 +825,15 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 		int tx = targetLocation.getSceneX();
 		int ty = targetLocation.getSceneY();
 
-		// Special case for >1 tile sized npc with non-barrage attack.
-		if (target instanceof NPC && !isBarrage) {
+		if (target instanceof NPC) {
 			NPC npc = (NPC) target;
 			int targetSize = npc.getTransformedComposition().getSize();
-			if (targetSize > 1) {
+			// An npc's location is its centre, move it to the south-west tile.
+			tx -= targetSize / 2;
+			ty -= targetSize / 2;
+
+			// Special case for >1 tile sized npc with non-barrage attack.
+			if (targetSize > 1 && !isBarrage) {
 				// measure distance from all 4 edges.
 				int nDiff = py - (ty + targetSize - 1);
 				int sDiff = ty - py;
@@ -614,44 +862,81 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 		final LocalPoint playerPosLocal = LocalPoint.fromWorld(client, playerPos);
 		if (playerPosLocal == null) return;
 
-		if (projectile.getX1() != playerPosLocal.getX() || projectile.getY1() != playerPosLocal.getY()) return;
-
-		int correctedLastRealAnimation = // Some standard spellbook spells use a different animation depending on the equipped weapon (or lack thereof).
-			(lastRealAnimation < 710 || lastRealAnimation > 729) ? lastRealAnimation :
-			lastRealAnimation == 710 ? 1161 :
-			lastRealAnimation == 711 ? 1162 :
-			lastRealAnimation == 716 ? 1163 :
-			lastRealAnimation == 717 ? 1164 :
-			lastRealAnimation == 718 ? 1165 :
-			lastRealAnimation == 724 ? 1166 :
-			lastRealAnimation == 727 ? 1167 :
-			lastRealAnimation == 728 ? 1168 :
-			lastRealAnimation == 729 ? 1169 :
-			lastRealAnimation
-		;
+		if (projectile.getX1() == playerPosLocal.getX() && projectile.getY1() == playerPosLocal.getY())
+		{
+			ProjectileSwap projectileSwap = findProjectileSwap(projectileSwaps, lastRealAnimation, projectile, player);
+			if (projectileSwap != null)
+			{
+				handlePossibleNoProjectileSpellInClientTick = false;
+				replaceProjectile(projectileSwap, projectile, player, playerPos.getPlane(), playerPosLocal);
+			}
+			return;
+		}
+
+		Player caster = otherPlayers.getPlayerAt(projectile.getX1(), projectile.getY1());
+		if (caster == null || caster.getPlayerComposition() == null) return;
+		final WorldPoint casterPos = caster.getWorldLocation();
+		final LocalPoint casterPosLocal = casterPos == null ? null : LocalPoint.fromWorld(client, casterPos);
+		if (casterPosLocal == null) return;
+
+		ProjectileSwap projectileSwap = findProjectileSwap(otherPlayers.getProjectileSwaps(caster), otherPlayers.getLastAnimation(caster), projectile, caster);
+		if (projectileSwap != null)
+		{
+			replaceProjectile(projectileSwap, projectile, caster, casterPos.getPlane(), casterPosLocal);
+		}
+	}
+
+	private ProjectileSwap findProjectileSwap(List<ProjectileSwap> projectileSwaps, int castAnimation, Projectile projectile, Player caster)
+	{
+		if (castAnimation == -1) return null;
+
+		int correctedCastAnimation = correctCastAnimation(castAnimation);
 		for (ProjectileSwap projectileSwap : projectileSwaps)
 		{
 			ProjectileCast toReplace = projectileSwap.getToReplace();
 			if (
-				toReplace.getCastAnimation() == correctedLastRealAnimation && correctedLastRealAnimation != -1 &&
+				toReplace.getCastAnimation() == correctedCastAnimation &&
 				toReplace.getProjectileId() == projectile.getId() &&
-				(toReplace.getCastGfx() == -1 || toReplace.getCastGfx() == player.getGraphic())
+				(toReplace.getCastGfx() == -1 || toReplace.getCastGfx() == caster.getGraphic())
 			) {
-				handlePossibleNoProjectileSpellInClientTick = false;
 //				System.out.println("matched " + toReplace.getName(itemManager) + " at " + client.getGameCycle());
-
-				int endCycle = projectile.getEndCycle();
-				Actor interacting = projectile.getInteracting();
-				int x = projectile.getTarget().getX();
-				int y = projectile.getTarget().getY();
-				int height = projectile.getHeight() - toReplace.height + projectileSwap.getToReplaceWith().height;
-
-				replaceSpell(projectileSwap, player, playerPos.getPlane(), playerPosLocal, height, endCycle, interacting, x, y);
-				projectile.setEndCycle(0);
-
-				break;
+				return projectileSwap;
 			}
 		}
+		return null;
+	}
+
+	/**
+	 * Some standard spellbook spells use a different animation depending on the equipped weapon (or lack thereof).
+	 *
+	 * @return the animation the spell is listed with.
+	 */
+	private static int correctCastAnimation(int castAnimation)
+	{
+		return
+			(castAnimation < 710 || castAnimation > 729) ? castAnimation :
+			castAnimation == 710 ? 1161 :
+			castAnimation == 711 ? 1162 :
+			castAnimation == 716 ? 1163 :
+			castAnimation == 717 ? 1164 :
+			castAnimation == 718 ? 1165 :
+			castAnimation == 724 ? 1166 :
+			castAnimation == 727 ? 1167 :
+			castAnimation == 728 ? 1168 :
+			castAnimation == 729 ? 1169 :
+			castAnimation;
+	}
+
+	private void replaceProjectile(ProjectileSwap projectileSwap, Projectile projectile, Player caster, int plane, LocalPoint casterPosLocal)
+	{
+		int endCycle = projectile.getEndCycle();
+		Actor interacting = projectile.getInteracting();
+		int x = projectile.getTarget().getX();
+		int y = projectile.getTarget().getY();
+		int height = projectile.getHeight() - projectileSwap.getToReplace().height + projectileSwap.getToReplaceWith().height;
+
+		replaceSpell(projectileSwap, caster, plane, casterPosLocal, height, endCycle, interacting, x, y);
+		projectile.setEndCycle(0);
 	}
 
 	private void replaceSpell(
@@ -703,99 +988,28 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 			{
 				// TODO remove this section, timing it yourself probably works better.
 				// the spell's hit gfx is on the enemy when the spell is cast, it just has a delay on it.
+				// A splash keeps its splash graphic.
 				int graphic = player.getInteracting().getGraphic();
-				if (graphic == toReplace.getHitGfx() || (graphic == 85 && true)) // TODO remove second part.
+				if (graphic == toReplace.getHitGfx())
 				{
 					player.getInteracting().setGraphic(toReplaceWith.getHitGfx());
 					player.getInteracting().setGraphicHeight(toReplaceWith.getHitGfxHeight());
 				}
+				// Other targets of a multi-target spell, which are hit even if the main target splashed.
+				if (SpellTargetTracker.isMultiTarget(toReplace))
+				{
+					for (Actor target : spellTargets.getOtherTargets(player.getInteracting(), toReplace.getHitGfx()))
+					{
+						target.setGraphic(toReplaceWith.getHitGfx());
+						target.setGraphicHeight(toReplaceWith.getHitGfxHeight());
+					}
+				}
 			}
 			else
 			{
-				delayedGfxToApply = toReplaceWith.getHitGfx();
-				delayedGfxHeightToApply = toReplaceWith.getHitGfxHeight();
-				actorToApplyDelayedGfxTo = player.getInteracting();
-				timeToApplyDelayedGfx = endCycle;
-			}
-		}
-	}
-
-	private void createScytheSwing()
-	{
-		scytheSwingCountdown = -1;
-
-		WorldPoint point = client.getLocalPlayer().getWorldLocation();
-		Actor interacting = client.getLocalPlayer().getInteracting();
-
-		int x = 0, y = 0;
-		int id;
-
-		// I know this can happen if you're attacking a target dummy in varrock, probably also in the poh.
-		if (interacting == null || !(interacting instanceof NPC)) {
-			int orientation = client.getLocalPlayer().getOrientation();
-			// 70 is just a number I felt might work nice here.
-			if (orientation > 512 - 70 && orientation < 512 + 70) {
-				x = -1;
-				id = 4006;
-			} else if (orientation > 1536 - 70 && orientation < 1536 + 70) {
-				x = 1;
-				id = 4003;
-			} else if (orientation > 512 && orientation < 1536) {
-				y = 1;
-				id = 4004;
-			} else {
-				y = -1;
-				id = 4005;
+				delayedGraphics.schedule(player.getInteracting(), toReplaceWith.getHitGfx(), toReplaceWith.getHitGfxHeight(), endCycle);
 			}
 		}
-		else
-		{
-			WorldPoint targetPoint = interacting.getWorldLocation();
-			int targetSize = ((NPC) interacting).getTransformedComposition().getSize();
-
-			int halfTargetSizeRoundedDown = (targetSize - 1) / 2;
-			int playerx = point.getX(), playery = point.getY();
-			int npcw = targetPoint.getX(), npcn = targetPoint.getY() + targetSize - 1, npce = targetPoint.getX() + targetSize - 1, npcs = targetPoint.getY();
-			boolean directwest = playerx == npcw - 1 && playery == npcs + halfTargetSizeRoundedDown;
-			boolean directeast = playerx == npce + 1 && playery == npcs + halfTargetSizeRoundedDown;
-			if (directwest) {
-				x = 1;
-				id = 4003;
-			} else if (directeast) {
-				x = -1;
-				id = 4006;
-			} else if (playery >= npcs + halfTargetSizeRoundedDown) {
-				y = -1;
-				id = 4005;
-			} else {
-				y = 1;
-				id = 4004;
-			}
-		}
-
-		point = new WorldPoint(point.getX() + x, point.getY() + y, point.getPlane());
-
-		RuneLiteObject runeLiteObject = client.createRuneLiteObject();
-		Color scytheSwingColor = currentScytheGraphicEffect != null ? currentScytheGraphicEffect.color : null;
-		if (scytheSwingColor != null)
-		{
-			Model model = client.loadModelData(id)
-				.cloneVertices()
-				.cloneColors()
-				.recolor((short) 960, JagexColor.rgbToHSL(scytheSwingColor.getRGB(), 1.0d))
-				.translate(0, -85, 0)
-				.light()
-			;
-			runeLiteObject.setModel(model);
-		} else {
-			runeLiteObject.setModel(client.loadModel(id));
-		}
-
-		runeLiteObject.setAnimation(client.loadAnimation(1204));
-		LocalPoint localPoint = LocalPoint.fromWorld(client, point);
-		runeLiteObject.setLocation(localPoint, client.getPlane());
-		// TODO should I set these to inactive at some point?
-		runeLiteObject.setActive(true);
 	}
 
 	public void demoCast(ProjectileCast pc)
@@ -883,31 +1097,60 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
     private void updateAnimations() { // TODO cache maybe based on the current gear.
 		List<Swap> matchingSwaps = getApplicableSwaps();
 
-		List<AnimationReplacement> replacements = matchingSwaps.stream()
+		currentAnimations = previewAnimationReplacements != null ? previewAnimationReplacements : new AnimationReplacements(getAnimationReplacements(matchingSwaps));
+		setPlayerPoseAnimations();
+
+		projectileSwaps = getProjectileSwaps(matchingSwaps);
+		spellTargets.setWatchedGraphics(projectileSwaps);
+
+		graphicEffects.setEffects(matchingSwaps);
+    }
+
+	private static List<AnimationReplacement> getAnimationReplacements(List<Swap> swaps)
+	{
+		return swaps.stream()
 			.flatMap(swap -> swap.animationReplacements.stream()
 				.filter(replacement -> replacement.animationSet != null && replacement.animationtypeToReplace != null)
 				.sorted()
 			)
 			.collect(Collectors.toList());
-		currentAnimations = previewAnimationReplacements != null ? previewAnimationReplacements : new AnimationReplacements(replacements);
-		setPlayerPoseAnimations();
+	}
+
+	/**
+	 * Resolves the swaps' animation replacements into out, by {@link AnimationType#ordinal()}, with -1 for types that
+	 * aren't replaced.
+	 */
+	static void resolveAnimationReplacements(List<Swap> swaps, int[] out, int offset)
+	{
+		AnimationReplacements replacements = new AnimationReplacements(getAnimationReplacements(swaps));
+		for (AnimationType type : AnimationType.values())
+		{
+			Integer animation = replacements.getAnimation(type);
+			out[offset + type.ordinal()] = animation != null ? animation : -1;
+		}
+	}
 
-		projectileSwaps = matchingSwaps.stream().flatMap(swap -> swap.getProjectileSwaps().stream()).filter(swap -> swap.getToReplace() != null && swap.getToReplaceWith() != null).collect(Collectors.toList());
+	/**
+	 * @return the projectile swaps for the player's gear. For other players, use {@link OtherPlayerTracker#getProjectileSwaps}, which caches this.
+	 */
+	List<ProjectileSwap> getProjectileSwaps(Player player)
+	{
+		return getProjectileSwaps(getApplicableSwaps(getEquippedItems(player)));
+	}
 
-		currentScytheGraphicEffect = matchingSwaps.stream()
-			.filter(swap -> swap.getGraphicEffects().stream().anyMatch(e -> e.type == GraphicEffect.Type.SCYTHE_SWING))
-			.flatMap(swap -> swap.getGraphicEffects().stream())
-			.findAny().orElse(null);
-    }
+	private static List<ProjectileSwap> getProjectileSwaps(List<Swap> swaps)
+	{
+		return swaps.stream().flatMap(swap -> swap.getProjectileSwaps().stream()).filter(swap -> swap.getToReplace() != null && swap.getToReplaceWith() != null).collect(Collectors.toList());
+	}
 
     public String itemDisplayName(int itemId) {
-		return Constants.getName(itemId, itemManager.getItemComposition(itemId).getName());
+		return itemNameCache.getDisplayName(itemId);
 	}
 
 	public String itemName(Integer itemId)
 	{
 		if (itemId == null) return "\"null\"";
-		String s = (itemId == null) ? "\"null\"" : "\"" + itemManager.getItemComposition(itemId).getName() + "\"";
+		String s = "\"" + itemNameCache.getName(itemId) + "\"";
 		if (s.equals("\"null\"")) {
 			s = Integer.toString(itemId);
 		}
@@ -939,16 +1182,102 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 	public void onAnimationChanged(AnimationChanged e)
 	{
 		Player player = client.getLocalPlayer();
-		if (!e.getActor().equals(player)) return;
+		if (!e.getActor().equals(player))
+		{
+			if (e.getActor() instanceof Player)
+			{
+				otherPlayers.animationChanged((Player) e.getActor());
+				otherPlayerTransmog.animationChanged((Player) e.getActor());
+			}
+			else if (e.getActor() instanceof NPC)
+			{
+				npcAnimations.animationChanged((NPC) e.getActor());
+			}
+			return;
+		}
 //		System.out.println("onanimationchanged");
 
 		lastRealAnimation = player.getAnimation();
 
+		if (Constants.spellCastAnimations.contains(correctCastAnimation(lastRealAnimation)))
+		{
+			graphicEffects.trigger(GraphicEffect.Trigger.SPELL_CAST);
+		}
 		checkForPossibleNoProjectileSpell(player);
 
 		swapPlayerAnimation();
 	}
 
+	@Subscribe
+	public void onGraphicChanged(GraphicChanged e) {
+		spellTargets.graphicChanged(e.getActor());
+	}
+
+	@Subscribe
+	public void onNpcSpawned(NpcSpawned e) {
+		npcAnimations.npcChanged(e.getNpc());
+	}
+
+	@Subscribe
+	public void onNpcChanged(NpcChanged e) {
+		npcAnimations.npcChanged(e.getNpc());
+	}
+
+	@Subscribe
+	public void onNpcDespawned(NpcDespawned e) {
+		delayedGraphics.remove(e.getNpc());
+	}
+
+	@Subscribe
+	public void onPlayerDespawned(PlayerDespawned e) {
+		delayedGraphics.remove(e.getPlayer());
+		otherPlayerTransmog.despawned(e.getPlayer());
+		otherPlayers.despawned(e.getPlayer());
+	}
+
+	@Subscribe
+	public void onPlayerSpawned(PlayerSpawned e) {
+		otherPlayers.update(e.getPlayer());
+		otherPlayerTransmog.playerChanged(e.getPlayer());
+	}
+
+	@Subscribe
+	public void onClanMemberJoined(ClanMemberJoined e) {
+		membershipChanged(e.getMember().getName());
+	}
+
+	@Subscribe
+	public void onClanMemberLeft(ClanMemberLeft e) {
+		membershipChanged(e.getMember().getName());
+	}
+
+	@Subscribe
+	public void onFriendsChatMemberJoined(FriendsChatMemberJoined e) {
+		membershipChanged(e.getMember().getName());
+	}
+
+	@Subscribe
+	public void onFriendsChatMemberLeft(FriendsChatMemberLeft e) {
+		membershipChanged(e.getMember().getName());
+	}
+
+	private void membershipChanged(String name) {
+		if (!otherPlayers.isTrackingClan()) return;
+
+		// Joining a friends chat sends an event for every member, so they're all handled in one pass, later. That is also
+		// after the players' clan member flags have been updated.
+		if (changedMemberNames.isEmpty()) clientThread.invokeLater(this::updateChangedMembers);
+		changedMemberNames.add(Text.standardize(name));
+	}
+
+	private void updateChangedMembers() {
+		for (Player player : otherPlayers.membershipChanged(changedMemberNames))
+		{
+			otherPlayerTransmog.playerChanged(player);
+		}
+		changedMemberNames.clear();
+	}
+
 	@Subscribe
 	public void onInteractingChanged(InteractingChanged e) {
 		if (e.getSource() != client.getLocalPlayer()) return;
@@ -977,13 +1306,24 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 
 	@Subscribe(priority = 1) // I need kit data to determine what the player is wearing (equipment inventory does not update fast enough to avoid flickering), so I need this information before other plugins might change it.
 	public void onPlayerChanged(PlayerChanged playerChanged) {
-		if (playerChanged.getPlayer() != client.getLocalPlayer()) return;
+		if (playerChanged.getPlayer() != client.getLocalPlayer())
+		{
+			otherPlayers.update(playerChanged.getPlayer());
+			otherPlayerTransmog.playerChanged(playerChanged.getPlayer());
+			return;
+		}
 
-		equippedItemsFromKit = IntStream.of(client.getLocalPlayer().getPlayerComposition().getEquipmentIds()).map(i -> itemManager.canonicalize(i - 512)).boxed().collect(Collectors.toList());
+		List<Integer> previousEquippedItems = equippedItemsFromKit;
+		equippedItemsFromKit = getEquippedItems(client.getLocalPlayer());
 		recordNaturalPlayerPoseAnimations();
 
 		transmogManager.reapplyTransmog();
 		updateAnimations();
+		// Empty until the gear is first read, e.g. on startup, which isn't a change.
+		if (!previousEquippedItems.isEmpty() && !previousEquippedItems.equals(equippedItemsFromKit))
+		{
+			graphicEffects.trigger(GraphicEffect.Trigger.GEAR_CHANGE);
+		}
 	}
 
 	private void recordNaturalPlayerPoseAnimations()
@@ -1055,25 +1395,19 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 		updateAnimations();
 	}
 
-	public AsyncBufferedImage getItemImage(int itemId) {
-        return itemManager.getImage(itemId);
-    }
-
-	public BufferedImage getSpellImage(ProjectileCast projectileCast)
-	{
-		return projectileCast.getSpriteIdIcon() != -1 ?
-			spriteManager.getSprite(projectileCast.getSpriteIdIcon(), 0) :
-			itemManager.getImage(projectileCast.getItemIdIcon())
-			;
-	}
-
     @Subscribe
     public void onGameStateChanged(GameStateChanged event)
     {
         if (event.getGameState() == GameState.LOGIN_SCREEN) {
+			spellCastTracker.clear(); // the next account's autocasts could be different.
+			itemNameCache.clear(); // game updates can rename items.
 			if (transmogSets != null) { // Can be null during plugin startup.
 				showSidePanel(!config.hideSidePanel());
 			}
+        } else if (event.getGameState() == GameState.LOADING) {
+			// The scene is being rebuilt, so leftover effects would be in the wrong place.
+			graphicEffects.clear();
+			delayedGraphics.clear();
         } else if (event.getGameState() == GameState.LOGGED_IN) {
         	// This is necessary for transmog to show up on teleports.
 			if (client.getLocalPlayer() == null) return; // happens during dcs?
@@ -1087,7 +1421,7 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 		{
 			player.setAnimation(animation);
 			player.setAnimationFrame(0);
-			if (currentScytheGraphicEffect != null) scytheSwingCountdown = 20;
+			graphicEffects.trigger(GraphicEffect.Trigger.ATTACK_ANIMATION);
 		}
     }
 
@@ -1100,13 +1434,27 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 	}
 
 	public Integer[] getApplicableModelSwaps()
+	{
+		Integer[] transmog = getApplicableModelSwaps(getApplicableSwaps(), equippedItemsFromKit);
+
+		if (previewItem != -1) {
+			SlotAndKitId slotForItem = getSlotAndKitForItem(previewItem, null);
+			if (slotForItem != null) {
+				transmog[slotForItem.slot] = slotForItem.kitId;
+			}
+		}
+
+		return transmog;
+	}
+
+	Integer[] getApplicableModelSwaps(List<Swap> applicableSwaps, List<Integer> equippedItems)
 	{
 		Integer[] genericTransmog = new Integer[KitType.values().length];
 		Integer[] specificTransmog = new Integer[KitType.values().length];
 
-		for (Swap swap : getApplicableSwaps())
+		for (Swap swap : applicableSwaps)
 		{
-			Integer[] transmogMap = swap.appliesSpecificallyToGear(equippedItemsFromKit, this) ? specificTransmog : genericTransmog;
+			Integer[] transmogMap = swap.appliesSpecificallyToGear(equippedItems, this) ? specificTransmog : genericTransmog;
 			for (Integer modelSwap : swap.getModelSwaps())
 			{
 				SlotAndKitId slotForItem = getSlotAndKitForItem(modelSwap, swap);
@@ -1124,23 +1472,30 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 			}
 		}
 
-		if (previewItem != -1) {
-			SlotAndKitId slotForItem = getSlotAndKitForItem(previewItem, null);
-			if (slotForItem != null) {
-				genericTransmog[slotForItem.slot] = slotForItem.kitId;
-			}
-		}
-
 		return genericTransmog;
 	}
 
+	List<Integer> getEquippedItems(Player player)
+	{
+		return IntStream.of(player.getPlayerComposition().getEquipmentIds()).map(i -> itemManager.canonicalize(i - 512)).boxed().collect(Collectors.toList());
+	}
+
 	private List<Swap> getApplicableSwaps()
 	{
-		return transmogSets.stream()
-			.filter(TransmogSet::isEnabled)
-			.flatMap(set -> set.getSwaps().stream())
-			.filter(swap -> swap.appliesToGear(equippedItemsFromKit, this))
-			.collect(Collectors.toList());
+		return getApplicableSwaps(equippedItemsFromKit);
+	}
+
+	List<Swap> getApplicableSwaps(List<Integer> equippedItems)
+	{
+		List<Swap> applicableSwaps = new ArrayList<>();
+		for (Swap swap : configSnapshot.get().getEnabledSwaps())
+		{
+			if (swap.appliesToGear(equippedItems, this))
+			{
+				applicableSwaps.add(swap);
+			}
+		}
+		return applicableSwaps;
 	}
 
 	@Value
@@ -1207,16 +1562,39 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 			if (e.getKey().equals("hideSidePanel")) {
 				showSidePanel(!config.hideSidePanel());
 			}
+			else if (e.getKey().equals("npcAnimations")) {
+				clientThread.invokeLater(npcAnimations::reload);
+			}
+			else if (e.getKey().startsWith("otherPlayers")) {
+				clientThread.invokeLater(() -> {
+					otherPlayers.reload();
+					otherPlayerTransmog.refreshAll();
+				});
+			}
 		}
 	}
 
 	private void showSidePanel(boolean showSidePanel)
 	{
-		SwingUtilities.invokeLater(() -> {
-			if (showSidePanel) {
-				if (navigationButton != null) return;
+		sidePanelWanted = showSidePanel;
+		if (!showSidePanel) {
+			SwingUtilities.invokeLater(() -> {
+				if (navigationButton == null) return;
 
-				pluginPanel = new WeaponAnimationReplacerPluginPanel(this);
+				clientToolbar.removeNavigation(navigationButton);
+				navigationButton = null;
+				pluginPanel = null;
+			});
+			return;
+		}
+
+		// Item names need the client thread, so look them up before handing off to the EDT rather than from each button.
+		clientThread.invoke(() -> {
+			SidePanelPreload preload = SidePanelPreload.collect(this, transmogSets);
+			SwingUtilities.invokeLater(() -> {
+				if (navigationButton != null || !sidePanelWanted) return; // hidden again while preloading.
+
+				pluginPanel = new WeaponAnimationReplacerPluginPanel(this, preload);
 				pluginPanel.rebuild();
 
 				final BufferedImage icon = ImageUtil.loadImageResource(WeaponAnimationReplacerPlugin.class, "panel_icon.png");
@@ -1229,13 +1607,7 @@ public class WeaponAnimationReplacerPlugin extends Plugin {
 					.build();
 
 				clientToolbar.addNavigation(navigationButton);
-			} else {
-				if (navigationButton == null) return;
-
-				clientToolbar.removeNavigation(navigationButton);
-				navigationButton = null;
-				pluginPanel = null;
-			}
+			});
 		});
 	}
 }
@@ -2,18 +2,26 @@ package com.weaponanimationreplacer;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.FlowLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.swing.Box;
 import javax.swing.ImageIcon;
+import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.border.EmptyBorder;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import net.runelite.client.plugins.screenmarkers.ScreenMarkerPlugin;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
@@ -31,6 +39,8 @@ public class WeaponAnimationReplacerPluginPanel extends PluginPanel {
 
     private final JLabel addMarker = new JLabel(ADD_ICON);
     private final JLabel title = new JLabel();
+    private final JButton undo = new JButton("Undo");
+    private final JButton redo = new JButton("Redo");
     private final PluginErrorPanel noMarkersPanel = new PluginErrorPanel();
     private final JPanel markerView = new JPanel(new GridBagLayout());
 
@@ -45,6 +55,15 @@ public class WeaponAnimationReplacerPluginPanel extends PluginPanel {
     @Getter
     private int selectedBorderThickness = DEFAULT_BORDER_THICKNESS;
 
+    private final Map<TransmogSet, SetRow> setRows = new IdentityHashMap<>();
+
+    @RequiredArgsConstructor
+    private static class SetRow
+    {
+        final TransmogSetPanel panel;
+        final Component spacer;
+    }
+
 	Swap currentlyEditingThisSwap = null;
 	int currentlyEditingThisProjectileSwapIndex = -1;
 
@@ -55,9 +74,10 @@ public class WeaponAnimationReplacerPluginPanel extends PluginPanel {
         ADD_HOVER_ICON = new ImageIcon(ImageUtil.alphaOffset(addIcon, 0.53f));
     }
 
-    public WeaponAnimationReplacerPluginPanel(WeaponAnimationReplacerPlugin weaponAnimationReplacerPlugin)
+    public WeaponAnimationReplacerPluginPanel(WeaponAnimationReplacerPlugin weaponAnimationReplacerPlugin, SidePanelPreload preload)
     {
         this.plugin = weaponAnimationReplacerPlugin;
+        plugin.iconCache.prefetch(preload.getIcons());
 
         setLayout(new BorderLayout());
         setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -69,7 +89,17 @@ public class WeaponAnimationReplacerPluginPanel extends PluginPanel {
         title.setBackground(ColorScheme.DARK_GRAY_COLOR);
         title.setForeground(Color.WHITE);
 
+        undo.setToolTipText("Undo the last change to your transmog sets.");
+        undo.addActionListener(e -> plugin.clientThread.invokeLater(plugin::undo));
+        redo.setToolTipText("Redo the last undone change.");
+        redo.addActionListener(e -> plugin.clientThread.invokeLater(plugin::redo));
+        JPanel undoRedo = new JPanel(new FlowLayout(FlowLayout.CENTER, 4, 0));
+        undoRedo.add(undo);
+        undoRedo.add(redo);
+        updateUndoRedoButtons();
+
         northPanel.add(title, BorderLayout.WEST);
+        northPanel.add(undoRedo, BorderLayout.CENTER);
         northPanel.add(addMarker, BorderLayout.EAST);
 
         JPanel centerPanel = new JPanel(new BorderLayout());
@@ -95,7 +125,7 @@ public class WeaponAnimationReplacerPluginPanel extends PluginPanel {
             @Override
             public void mousePressed(MouseEvent mouseEvent)
             {
-                plugin.addNewTransmogSet(0);
+                plugin.clientThread.invokeLater(() -> plugin.addNewTransmogSet(0));
             }
 
             @Override
@@ -117,40 +147,98 @@ public class WeaponAnimationReplacerPluginPanel extends PluginPanel {
         add(centerPanel, BorderLayout.CENTER);
     }
 
+    void updateUndoRedoButtons()
+    {
+        undo.setEnabled(plugin.editHistory.canUndo());
+        redo.setEnabled(plugin.editHistory.canRedo());
+    }
+
+    /**
+     * Updates the panel to match the plugin's transmog sets. Panels of sets that are still there are kept and only
+     * moved, so adding, deleting or reordering a set doesn't recreate every other set's panel.
+     */
     public void rebuild()
     {
+        List<TransmogSet> transmogSets = plugin.getTransmogSets();
+        if (transmogSets == null) transmogSets = Collections.emptyList();
+
+        GridBagLayout layout = (GridBagLayout) markerView.getLayout();
         GridBagConstraints constraints = new GridBagConstraints();
         constraints.fill = GridBagConstraints.HORIZONTAL;
         constraints.weightx = 1;
         constraints.gridx = 0;
         constraints.gridy = 0;
 
-        markerView.removeAll();
+        Map<TransmogSet, SetRow> oldRows = new IdentityHashMap<>(setRows);
+        setRows.clear();
 
         int index = 0;
-        for (TransmogSet transmogSet : plugin.getTransmogSets())
+        for (TransmogSet transmogSet : transmogSets)
         {
-            markerView.add(new TransmogSetPanel(plugin, transmogSet, this, index++), constraints);
-            constraints.gridy++;
-
-            markerView.add(Box.createRigidArea(new Dimension(0, 10)), constraints);
-            constraints.gridy++;
+            SetRow row = oldRows.remove(transmogSet);
+            if (row == null)
+            {
+                row = new SetRow(new TransmogSetPanel(plugin, transmogSet, this, index), Box.createRigidArea(new Dimension(0, 10)));
+                markerView.add(row.panel, constraints);
+                constraints.gridy++;
+                markerView.add(row.spacer, constraints);
+                constraints.gridy++;
+            }
+            else
+            {
+                row.panel.setIndex(index);
+                layout.setConstraints(row.panel, constraints);
+                constraints.gridy++;
+                layout.setConstraints(row.spacer, constraints);
+                constraints.gridy++;
+            }
+            setRows.put(transmogSet, row);
+            index++;
+        }
+        for (SetRow removed : oldRows.values())
+        {
+            markerView.remove(removed.panel);
+            markerView.remove(removed.spacer);
         }
 
         boolean empty = constraints.gridy == 0;
         noMarkersPanel.setVisible(empty);
         title.setVisible(!empty);
 
-        markerView.add(noMarkersPanel, constraints);
-        constraints.gridy++;
+        layout.setConstraints(noMarkersPanel, constraints);
 
-//        markerView.add(creationPanel, constraints);
-//        constraints.gridy++;
-//
         repaint();
         revalidate();
     }
 
+    /**
+     * Recreates every set's panel, for when something other than the transmog sets changed, like the list of animation
+     * sets.
+     */
+    public void rebuildAll()
+    {
+        for (SetRow row : setRows.values())
+        {
+            markerView.remove(row.panel);
+            markerView.remove(row.spacer);
+        }
+        setRows.clear();
+        rebuild();
+    }
+
+    /**
+     * Recreates the row of a swap whose contents changed, in whichever set it is in.
+     */
+    public void rebuildSwap(Swap swap)
+    {
+        if (swap == null) return;
+
+        for (SetRow row : setRows.values())
+        {
+            row.panel.rebuildSwap(swap);
+        }
+    }
+
     public void deleteNewRule(int index) {
 
     }
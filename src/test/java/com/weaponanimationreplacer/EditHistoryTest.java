@@ -0,0 +1,54 @@
+package com.weaponanimationreplacer;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class EditHistoryTest
+{
+	@Test
+	public void testUndoRedo() {
+		TransmogSet a = new TransmogSet();
+		TransmogSet b = new TransmogSet();
+		TransmogSet b2 = new TransmogSet();
+		List<TransmogSet> first = Arrays.asList(a, b);
+		List<TransmogSet> second = Arrays.asList(a, b2);
+
+		EditHistory history = new EditHistory();
+		history.reset(first);
+		assertFalse(history.canUndo());
+		assertFalse(history.record(Arrays.asList(a, b))); // same sets, nothing changed.
+		assertTrue(history.record(second));
+
+		assertSame(first.get(1), history.undo().get(1));
+		assertNull(history.undo());
+		assertSame(b2, history.redo().get(1));
+		assertNull(history.redo());
+
+		history.undo();
+		history.record(Arrays.asList(b));
+		assertFalse(history.canRedo()); // a new edit drops the redo states.
+	}
+
+	@Test
+	public void testUndoKeepsShardId() {
+		TransmogSet set = new TransmogSet();
+		set.shardId = "7";
+		set.setName("before");
+
+		EditHistory history = new EditHistory();
+		history.reset(Arrays.asList(set.frozenCopy()));
+		set.setName("after");
+		set.invalidateFrozenCopy();
+		assertTrue(history.record(Arrays.asList(set.frozenCopy())));
+
+		TransmogSet restored = TransmogSet.thaw(history.undo().get(0));
+		assertEquals("before", restored.getName());
+		assertEquals("7", restored.shardId); // saved over the same shard, rather than as a new set.
+	}
+}
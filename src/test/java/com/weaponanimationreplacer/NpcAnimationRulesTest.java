@@ -0,0 +1,44 @@
+package com.weaponanimationreplacer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class NpcAnimationRulesTest
+{
+	@Test
+	public void testParse() {
+		NpcAnimationRules rules = NpcAnimationRules.parse(
+			"3127: Scythe of Vitur\n" +
+			"3127: 2637>8056, 2638 > 424\n" +
+			"50: 1>2,bad>3\n" +
+			"not a rule\n" +
+			"60: Not an animation set\n" +
+			"70:\n"
+		);
+
+		NpcAnimationRules.Rule rule = rules.get(3127);
+		assertTrue(rule.hasPoseAnimations());
+		assertEquals(8057, rule.getPoseAnimation(Constants.ActorAnimation.IDLE));
+		assertEquals(8056, rule.getReplacement(2637));
+		assertEquals(424, rule.getReplacement(2638));
+		assertEquals(-1, rule.getReplacement(2639));
+
+		rule = rules.get(50);
+		assertFalse(rule.hasPoseAnimations());
+		assertEquals(2, rule.getReplacement(1));
+
+		assertNull(rules.get(60));
+		assertNull(rules.get(70));
+		assertNull(rules.get(3128));
+	}
+
+	@Test
+	public void testEmpty() {
+		assertTrue(NpcAnimationRules.parse("").isEmpty());
+		assertTrue(NpcAnimationRules.parse(null).isEmpty());
+		assertTrue(NpcAnimationRules.parse("nothing useful").isEmpty());
+	}
+}
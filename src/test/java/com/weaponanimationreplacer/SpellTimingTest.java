@@ -0,0 +1,31 @@
+package com.weaponanimationreplacer;
+
+import com.google.gson.Gson;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class SpellTimingTest
+{
+	@Test
+	public void testTimingsFromData() {
+		Constants.Data data = new Gson().fromJson(new InputStreamReader(Constants.class.getResourceAsStream("data.json"), StandardCharsets.UTF_8), Constants.Data.class);
+		ProjectileCast replacement = ProjectileCast.p().projectile(1, 51, 64, -172, 124, 16).build();
+
+		// God spells always take 120 cycles, whatever the replacement's start movement.
+		SpellTiming saradominStrike = data.spellTimings.get(21);
+		assertEquals(120, saradominStrike.getHitCycles(7, replacement));
+
+		SpellTiming iceBurst = data.spellTimings.get(43);
+		assertFalse(iceBurst.isBarrage());
+		assertTrue(iceBurst.isMultiTarget());
+		assertEquals(51 - 5 + 10 * 3, iceBurst.getHitCycles(3, replacement));
+
+		assertTrue(data.spellTimings.get(51).isBarrage()); // Ice Barrage.
+		assertFalse(saradominStrike.isMultiTarget());
+		assertFalse(data.spellTimings.get(47).isMultiTarget()); // Ice Blitz.
+	}
+}
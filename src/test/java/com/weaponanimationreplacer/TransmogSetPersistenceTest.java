@@ -0,0 +1,43 @@
+package com.weaponanimationreplacer;
+
+import java.io.IOException;
+import java.io.Reader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TransmogSetPersistenceTest
+{
+	@Test
+	public void testCompressedRoundTrip() throws IOException {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < 2000; i++) {
+			if (i != 0) json.append(",");
+			json.append("{\"name\":\"Set ").append(i).append(" \u00e9\",\"enabled\":true,\"minimized\":false}");
+		}
+		json.append("]");
+
+		String compressed = TransmogSetPersistence.compress(json, 0, json.length());
+		assertTrue(compressed.startsWith(TransmogSetPersistence.DEFLATE_PREFIX));
+		assertTrue(compressed.length() < json.length());
+		assertEquals(json.toString(), readAll(compressed));
+	}
+
+	@Test
+	public void testOldFormatsStillRead() throws IOException {
+		assertEquals("[]", readAll("NOT_JSON[]"));
+		assertEquals("[]", readAll("[]"));
+	}
+
+	private static String readAll(String configuration) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		try (Reader reader = TransmogSetPersistence.openReader(configuration)) {
+			char[] chars = new char[1024];
+			int read;
+			while ((read = reader.read(chars)) != -1) {
+				sb.append(chars, 0, read);
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -263,9 +263,9 @@ public class WeaponAnimationReplacerToolsPlugin extends Plugin
 				player.getIdleRotateLeft()
 			);
 			if (!lists.contains(currentPoseanims)) {
-				System.out.println("not duplicate: " + plugin.itemManager.getItemComposition(weapon).getName() + " " + currentPoseanims);
+				System.out.println("not duplicate: " + plugin.itemNameCache.getName(weapon) + " " + currentPoseanims);
 			}
-//			System.out.println("not duplicate: " + plugin.itemManager.getItemComposition(weapon).getName() + " " + currentPoseanims);
+//			System.out.println("not duplicate: " + plugin.itemNameCache.getName(weapon) + " " + currentPoseanims);
 			lists.add(currentPoseanims);
 			poseanims.put(weapon, lists);
 		}
@@ -488,7 +488,7 @@ public class WeaponAnimationReplacerToolsPlugin extends Plugin
 			for (Map.Entry<Integer, Set<List<Integer>>> entry : poseanims.entrySet())
 			{
 				int itemId = entry.getKey();
-				String name = itemManager.getItemComposition(itemId).getName();
+				String name = plugin.itemNameCache.getName(itemId);
 				Set<List<Integer>> poseanims = entry.getValue();
 				if (poseanims.size() > 1) {
 					System.out.println("more than 1: " + name + " " + itemId + " " + poseanims);
@@ -840,7 +840,7 @@ public class WeaponAnimationReplacerToolsPlugin extends Plugin
 							if (itemStats != null && itemStats.isEquipable()) {
 								equippable = true;
 							}
-							System.out.println("\t" + (equippable ? "e" : " ") + " " + integer1 + " " + plugin.itemManager.getItemComposition(integer1).getName());
+							System.out.println("\t" + (equippable ? "e" : " ") + " " + integer1 + " " + plugin.itemNameCache.getName(integer1));
 						}
 					}
 					count++;
@@ -860,7 +860,7 @@ public class WeaponAnimationReplacerToolsPlugin extends Plugin
 //						if (itemStats != null && itemStats.isEquipable()) {
 //							equippable = true;
 //						}
-//						System.out.println("\t" + (equippable ? "e" : " ") + " " + integer1 + " " + plugin.itemManager.getItemComposition(integer1).getName());
+//						System.out.println("\t" + (equippable ? "e" : " ") + " " + integer1 + " " + plugin.itemNameCache.getName(integer1));
 //					}
 //				}
 //			}
@@ -898,7 +898,7 @@ public class WeaponAnimationReplacerToolsPlugin extends Plugin
 		if (command.equals("reload")) {
 			AnimationSet.loadAnimationSets();
 			Constants.loadData(plugin.getGson());
-			SwingUtilities.invokeLater(plugin.pluginPanel::rebuild);
+			SwingUtilities.invokeLater(plugin.pluginPanel::rebuildAll);
 			System.out.println("reloaded animations sets, projectiles, and equippable.");
 		}
 